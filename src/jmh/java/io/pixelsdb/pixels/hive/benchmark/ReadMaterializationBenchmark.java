@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.benchmark;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.ColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import io.pixelsdb.pixels.hive.common.PixelsColumnReader;
+import io.pixelsdb.pixels.hive.common.PixelsStruct;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the materialization of the values in a row batch into the row of hive,
+ * which is the per-row work of the record readers. The score is in rows per second,
+ * run with -prof gc to get the bytes allocated per row.
+ * <ul>
+ *     <li>columnReader: the column reader bound to the batch.</li>
+ *     <li>eagerStruct: the column reader sets the field of the struct, which is
+ *     then accessed by the struct inspector, as in the default record reader.</li>
+ *     <li>lazyStruct: the field is decoded when it is accessed by the inspector.</li>
+ *     <li>lazyStructSelective: as lazyStruct, but only 10% of the rows are accessed,
+ *     as if the rest were filtered out by a predicate on another column.</li>
+ * </ul>
+ *
+ * Created at: 2026-10-18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadMaterializationBenchmark
+{
+    @Param({"long", "double", "string", "date", "struct", "nulls", "repeating"})
+    public String dataset;
+
+    @Param({"false", "true"})
+    public boolean bytesView;
+
+    private TypeDescription columnType;
+    private VectorizedRowBatch batch;
+    private ColumnVector column;
+    private PixelsColumnReader reader;
+    private PixelsStruct struct;
+    private StructObjectInspector inspector;
+    private StructField field;
+
+    @Setup
+    public void setup()
+    {
+        String typeString = RowBatches.getTypeString(dataset);
+        TypeDescription schema = TypeDescription.fromString(typeString);
+        this.columnType = schema.getChildren().get(0);
+        this.batch = RowBatches.create(dataset, schema, 1);
+        this.column = batch.cols[0];
+        this.reader = PixelsColumnReader.create(columnType, bytesView);
+        this.struct = new PixelsStruct(1);
+        this.inspector = (StructObjectInspector) PixelsStruct.createObjectInspector(
+                TypeInfoUtils.getTypeInfoFromTypeString(typeString), bytesView);
+        this.field = inspector.getAllStructFieldRefs().get(0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RowBatches.BATCH_SIZE)
+    public void columnReader(Blackhole blackhole)
+    {
+        reader.bind(column, batch.size);
+        for (int row = 0; row < batch.size; ++row)
+        {
+            blackhole.consume(reader.read(row));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RowBatches.BATCH_SIZE)
+    public void eagerStruct(Blackhole blackhole)
+    {
+        reader.bind(column, batch.size);
+        for (int row = 0; row < batch.size; ++row)
+        {
+            struct.setFieldValue(0, reader.read(row));
+            blackhole.consume(inspector.getStructFieldData(struct, field));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RowBatches.BATCH_SIZE)
+    public void lazyStruct(Blackhole blackhole)
+    {
+        reader.bind(column, batch.size);
+        struct.setLazyField(0, reader);
+        for (int row = 0; row < batch.size; ++row)
+        {
+            struct.setLazyRow(row);
+            blackhole.consume(inspector.getStructFieldData(struct, field));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RowBatches.BATCH_SIZE)
+    public void lazyStructSelective(Blackhole blackhole)
+    {
+        reader.bind(column, batch.size);
+        struct.setLazyField(0, reader);
+        for (int row = 0; row < batch.size; ++row)
+        {
+            struct.setLazyRow(row);
+            if (row % 10 == 0)
+            {
+                blackhole.consume(inspector.getStructFieldData(struct, field));
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.benchmark;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.BinaryColumnVector;
+import io.pixelsdb.pixels.core.vector.ColumnVector;
+import io.pixelsdb.pixels.core.vector.DoubleColumnVector;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.StructColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+
+import java.util.Random;
+
+/**
+ * Generates synthetic row batches with one column for the benchmarks.
+ * The type string of each dataset is valid for both pixels and hive.
+ *
+ * Created at: 2026-10-18
+ */
+public class RowBatches
+{
+    public static final int BATCH_SIZE = 10000;
+
+    private RowBatches()
+    {
+    }
+
+    /**
+     * @param dataset long, double, string, date, struct, nulls or repeating
+     * @return the type string of the row with one column named c
+     */
+    public static String getTypeString(String dataset)
+    {
+        switch (dataset)
+        {
+            case "long":
+            case "nulls":
+            case "repeating":
+                return "struct<c:bigint>";
+            case "double":
+                return "struct<c:double>";
+            case "string":
+                return "struct<c:string>";
+            case "date":
+                return "struct<c:date>";
+            case "struct":
+                return "struct<c:struct<a:bigint,b:string>>";
+            default:
+                throw new IllegalArgumentException("Unknown dataset " + dataset);
+        }
+    }
+
+    /**
+     * Create a row batch of BATCH_SIZE rows for the dataset.
+     * The nulls dataset has 90% nulls, the repeating dataset has a repeating vector.
+     *
+     * @param dataset the name of the dataset
+     * @param schema the schema created from {@link #getTypeString(String)}
+     * @param seed the seed of the random values
+     * @return the row batch
+     */
+    public static VectorizedRowBatch create(String dataset, TypeDescription schema, long seed)
+    {
+        Random random = new Random(seed);
+        VectorizedRowBatch batch = schema.createRowBatch(BATCH_SIZE);
+        ColumnVector column = batch.cols[0];
+        switch (dataset)
+        {
+            case "long":
+                fillLongs((LongColumnVector) column, random);
+                break;
+            case "double":
+            {
+                DoubleColumnVector vector = (DoubleColumnVector) column;
+                for (int row = 0; row < BATCH_SIZE; ++row)
+                {
+                    vector.vector[row] = Double.doubleToLongBits(random.nextDouble() * 1000000);
+                }
+                break;
+            }
+            case "string":
+                fillStrings((BinaryColumnVector) column, random);
+                break;
+            case "date":
+            {
+                LongColumnVector vector = (LongColumnVector) column;
+                for (int row = 0; row < BATCH_SIZE; ++row)
+                {
+                    // days since epoch in 1990 - 2030.
+                    vector.vector[row] = 7300 + random.nextInt(14600);
+                }
+                break;
+            }
+            case "struct":
+            {
+                StructColumnVector vector = (StructColumnVector) column;
+                fillLongs((LongColumnVector) vector.fields[0], random);
+                fillStrings((BinaryColumnVector) vector.fields[1], random);
+                break;
+            }
+            case "nulls":
+            {
+                LongColumnVector vector = (LongColumnVector) column;
+                fillLongs(vector, random);
+                vector.noNulls = false;
+                for (int row = 0; row < BATCH_SIZE; ++row)
+                {
+                    vector.isNull[row] = random.nextInt(10) != 0;
+                }
+                break;
+            }
+            case "repeating":
+                ((LongColumnVector) column).fill(random.nextLong());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown dataset " + dataset);
+        }
+        batch.size = BATCH_SIZE;
+        return batch;
+    }
+
+    private static void fillLongs(LongColumnVector vector, Random random)
+    {
+        for (int row = 0; row < BATCH_SIZE; ++row)
+        {
+            vector.vector[row] = random.nextLong();
+        }
+    }
+
+    /**
+     * Fill the vector with ascii strings of 1 to 64 bytes.
+     */
+    private static void fillStrings(BinaryColumnVector vector, Random random)
+    {
+        for (int row = 0; row < BATCH_SIZE; ++row)
+        {
+            byte[] bytes = new byte[1 + random.nextInt(64)];
+            for (int i = 0; i < bytes.length; ++i)
+            {
+                bytes[i] = (byte) ('a' + random.nextInt(26));
+            }
+            vector.setVal(row, bytes, 0, bytes.length);
+        }
+    }
+}
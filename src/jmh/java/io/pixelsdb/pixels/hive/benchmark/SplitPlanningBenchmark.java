@@ -0,0 +1,232 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.benchmark;
+
+import io.pixelsdb.pixels.common.metadata.SchemaTableName;
+import io.pixelsdb.pixels.common.metadata.domain.Layout;
+import io.pixelsdb.pixels.common.metadata.domain.Path;
+import io.pixelsdb.pixels.daemon.MetadataProto;
+import io.pixelsdb.pixels.hive.common.PixelsBlockLocator;
+import io.pixelsdb.pixels.hive.common.PixelsCacheRegistry;
+import io.pixelsdb.pixels.hive.common.PixelsMetadataSource;
+import io.pixelsdb.pixels.hive.common.PixelsSplit;
+import io.pixelsdb.pixels.hive.mapred.PixelsSplitPlanner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of planning the splits of a synthetic table by {@link PixelsSplitPlanner},
+ * with the in-memory metadata, pixels cache registry and block locations, so that neither the
+ * metadata database, etcd nor HDFS is needed.
+ * <p>
+ * The files of the table are evenly distributed in the layouts. In each layout, half of the files
+ * are ordered files with one row group, the other half are compact files with
+ * {@link #ROW_GROUPS_IN_COMPACT_FILE} row groups. If cache is true, the table is cached and
+ * the splits of the compact files are located on the caching nodes.
+ * </p>
+ * It can also be run from the command line without JMH:
+ * <pre>
+ * java -cp ... io.pixelsdb.pixels.hive.benchmark.SplitPlanningBenchmark numFiles numLayouts cache [iterations]
+ * </pre>
+ *
+ * Created at: 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SplitPlanningBenchmark
+{
+    public static final int NUM_COLUMNS = 64;
+    public static final int NUM_INCLUDED_COLUMNS = 8;
+    public static final int ROW_GROUPS_IN_COMPACT_FILE = 16;
+    public static final int SPLIT_SIZE = 4;
+    public static final int NUM_HOSTS = 100;
+
+    private static final SchemaTableName TABLE = new SchemaTableName("bench", "synthetic");
+
+    @Param({"10000", "100000", "1000000"})
+    public int numFiles;
+
+    @Param({"1", "32"})
+    public int numLayouts;
+
+    @Param({"false", "true"})
+    public boolean cache;
+
+    private PixelsSplitPlanner planner;
+    private String[] includedColumns;
+
+    @Setup
+    public void setup()
+    {
+        this.planner = createPlanner(numFiles, numLayouts, cache);
+        this.includedColumns = new String[NUM_INCLUDED_COLUMNS];
+        for (int i = 0; i < NUM_INCLUDED_COLUMNS; ++i)
+        {
+            includedColumns[i] = "c" + i;
+        }
+    }
+
+    @Benchmark
+    public List<PixelsSplit> plan()
+    {
+        return planner.plan(TABLE, includedColumns, null, null, 0);
+    }
+
+    /**
+     * Create the planner of the synthetic table on the in-memory sources.
+     *
+     * @param numFiles the total number of files in the table
+     * @param numLayouts the number of layouts, i.e., the versions of the table
+     * @param cache whether the table is cached by pixels cache
+     * @return the planner
+     */
+    public static PixelsSplitPlanner createPlanner(int numFiles, int numLayouts, boolean cache)
+    {
+        String[] hosts = new String[NUM_HOSTS];
+        for (int i = 0; i < NUM_HOSTS; ++i)
+        {
+            hosts[i] = "node" + i;
+        }
+        PixelsMetadataSource.InMemory metadata = new PixelsMetadataSource.InMemory();
+        Map<String, String> cacheLocations = new HashMap<>();
+        String ordered = createOrdered();
+        String splits = "{\"numRowGroupInFile\":" + ROW_GROUPS_IN_COMPACT_FILE + ",\"splitPatterns\":[]}";
+        String compact = createCompact();
+        int filesPerLayout = Math.max(1, numFiles / numLayouts);
+        long pathId = 0;
+        for (int version = 0; version < numLayouts; ++version)
+        {
+            String base = "hdfs://namenode:9000/pixels/bench/synthetic/v-" + version;
+            Path orderedPath = createPath(++pathId, base + "-ordered");
+            Path compactPath = createPath(++pathId, base + "-compact");
+            int numOrdered = filesPerLayout / 2;
+            int numCompact = filesPerLayout - numOrdered;
+            metadata.addFiles(orderedPath.getId(), createFiles(orderedPath.getId(), numOrdered, 1));
+            List<MetadataProto.File> compactFiles = createFiles(compactPath.getId(),
+                    numCompact, ROW_GROUPS_IN_COMPACT_FILE);
+            metadata.addFiles(compactPath.getId(), compactFiles);
+            for (MetadataProto.File file : compactFiles)
+            {
+                cacheLocations.put(compactPath.getUri() + "/" + file.getName(),
+                        hosts[cacheLocations.size() % NUM_HOSTS]);
+            }
+
+            Layout layout = new Layout();
+            layout.setId(version);
+            layout.setVersion(version);
+            layout.setOrdered(ordered);
+            layout.setSplits(splits);
+            layout.setCompact(compact);
+            List<Path> orderedPaths = new ArrayList<>(1);
+            orderedPaths.add(orderedPath);
+            layout.setOrderedPaths(orderedPaths);
+            List<Path> compactPaths = new ArrayList<>(1);
+            compactPaths.add(compactPath);
+            layout.setCompactPaths(compactPaths);
+            metadata.addLayout(TABLE, layout);
+        }
+        PixelsCacheRegistry cacheRegistry = new PixelsCacheRegistry.InMemory(
+                cache ? TABLE : null, "1", cacheLocations);
+        PixelsBlockLocator blockLocator = new PixelsBlockLocator.InMemory(hosts, 3, 256L * 1024 * 1024);
+        return new PixelsSplitPlanner(metadata, cacheRegistry, blockLocator, cache, false, SPLIT_SIZE);
+    }
+
+    private static String createOrdered()
+    {
+        StringBuilder builder = new StringBuilder("{\"columnOrder\":[");
+        for (int i = 0; i < NUM_COLUMNS; ++i)
+        {
+            builder.append(i == 0 ? "\"c" : ",\"c").append(i).append('"');
+        }
+        return builder.append("]}").toString();
+    }
+
+    /**
+     * The first half of the column chunks of the first row group are cached.
+     */
+    private static String createCompact()
+    {
+        StringBuilder builder = new StringBuilder("{\"numRowGroupInFile\":")
+                .append(ROW_GROUPS_IN_COMPACT_FILE).append(",\"numColumn\":").append(NUM_COLUMNS)
+                .append(",\"cacheBorder\":").append(NUM_COLUMNS / 2).append(",\"columnChunkOrder\":[");
+        for (int i = 0; i < NUM_COLUMNS; ++i)
+        {
+            builder.append(i == 0 ? "\"0:" : ",\"0:").append(i).append('"');
+        }
+        return builder.append("]}").toString();
+    }
+
+    private static Path createPath(long id, String uri)
+    {
+        Path path = new Path();
+        path.setId(id);
+        path.setUri(uri);
+        return path;
+    }
+
+    private static List<MetadataProto.File> createFiles(long pathId, int numFiles, int numRowGroup)
+    {
+        List<MetadataProto.File> files = new ArrayList<>(numFiles);
+        for (int i = 0; i < numFiles; ++i)
+        {
+            files.add(MetadataProto.File.newBuilder()
+                    .setPathId(pathId)
+                    .setName(String.format("%08d.pxl", i))
+                    .setNumRowGroup(numRowGroup).build());
+        }
+        return files;
+    }
+
+    /**
+     * Plan the splits of the synthetic table for a number of iterations and print the latency.
+     *
+     * @param args numFiles numLayouts cache [iterations]
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 3)
+        {
+            System.err.println("Usage: SplitPlanningBenchmark numFiles numLayouts cache [iterations]");
+            System.exit(1);
+        }
+        SplitPlanningBenchmark benchmark = new SplitPlanningBenchmark();
+        benchmark.numFiles = Integer.parseInt(args[0]);
+        benchmark.numLayouts = Integer.parseInt(args[1]);
+        benchmark.cache = Boolean.parseBoolean(args[2]);
+        int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        benchmark.setup();
+        for (int i = 0; i < iterations; ++i)
+        {
+            long start = System.nanoTime();
+            List<PixelsSplit> splits = benchmark.plan();
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("iteration %d: %d splits in %.3f ms%n", i, splits.size(), elapsed / 1e6);
+        }
+    }
+}
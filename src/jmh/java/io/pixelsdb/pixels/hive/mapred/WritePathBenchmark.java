@@ -0,0 +1,324 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.mapred;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.BinaryColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import io.pixelsdb.pixels.hive.PixelsSerDe;
+import io.pixelsdb.pixels.hive.common.PixelsRW;
+import io.pixelsdb.pixels.hive.common.PixelsStruct;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.type.HiveChar;
+import org.apache.hadoop.hive.common.type.HiveVarchar;
+import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.hive.serde2.io.DateWritable;
+import org.apache.hadoop.hive.serde2.io.HiveCharWritable;
+import org.apache.hadoop.hive.serde2.io.HiveVarcharWritable;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
+import org.apache.hadoop.io.DoubleWritable;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.Text;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the write path of pixels-hive. The scores are in rows per second,
+ * run with -prof gc to get the GC pressure of each type mix.
+ * <ul>
+ *     <li>serialize: PixelsSerDe.serialize, which wraps the row of the operator.</li>
+ *     <li>setColumnBySchema: setColumn driven by the TypeDescription, on PixelsStruct rows.</li>
+ *     <li>setColumnByInspector: setColumn driven by the ObjectInspector, on standard struct rows.</li>
+ *     <li>setCharValue: padding and trimming values to char(16).</li>
+ *     <li>writeFile: writes rows into a local pixels file by PixelsMapredRecordWriter, it also
+ *     reports the bytes written per second.</li>
+ * </ul>
+ * It is in the package of the record writer to access its package-private methods.
+ *
+ * Created at: 2026-10-18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WritePathBenchmark
+{
+    private static final int NUM_ROWS = 1024;
+    private static final int FILE_ROWS = 100 * NUM_ROWS;
+    private static final int CHAR_LENGTH = 16;
+
+    @Param({"numeric", "string", "mixed"})
+    public String mix;
+
+    private TypeDescription schema;
+    private VectorizedRowBatch batch;
+    private PixelsStruct[] pixelsRows;
+    private Object[] standardRows;
+    private StructObjectInspector standardInspector;
+    private List<? extends StructField> standardFields;
+    private Text[] charValues;
+    private PixelsSerDe serDe;
+    private Configuration conf;
+    private FileSystem fs;
+    private java.nio.file.Path directory;
+    private int fileId = 0;
+
+    /**
+     * The bytes written per second by writeFile.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class FileCounters
+    {
+        public long bytes;
+    }
+
+    static String getTypeString(String mix)
+    {
+        switch (mix)
+        {
+            case "numeric":
+                return "struct<a:bigint,b:int,c:double,d:date>";
+            case "string":
+                return "struct<a:string,b:char(16),c:varchar(32)>";
+            case "mixed":
+                return "struct<a:bigint,b:string,c:double,d:char(16),e:date,f:varchar(32)>";
+            default:
+                throw new IllegalArgumentException("Unknown mix " + mix);
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException, SerDeException
+    {
+        String typeString = getTypeString(mix);
+        this.schema = TypeDescription.fromString(typeString);
+        this.batch = schema.createRowBatch(NUM_ROWS);
+
+        List<String> names = schema.getFieldNames();
+        List<TypeDescription> types = schema.getChildren();
+        List<ObjectInspector> inspectors = new ArrayList<>(types.size());
+        for (TypeDescription type : types)
+        {
+            inspectors.add(PrimitiveObjectInspectorFactory.getPrimitiveWritableObjectInspector(
+                    (PrimitiveTypeInfo) TypeInfoUtils.getTypeInfoFromTypeString(type.toString())));
+        }
+        this.standardInspector = ObjectInspectorFactory.getStandardStructObjectInspector(names, inspectors);
+        this.standardFields = standardInspector.getAllStructFieldRefs();
+
+        Random random = new Random(1);
+        this.pixelsRows = new PixelsStruct[NUM_ROWS];
+        this.standardRows = new Object[NUM_ROWS];
+        for (int row = 0; row < NUM_ROWS; ++row)
+        {
+            PixelsStruct pixelsRow = new PixelsStruct(types.size());
+            Object[] standardRow = new Object[types.size()];
+            for (int c = 0; c < types.size(); ++c)
+            {
+                TypeDescription type = types.get(c);
+                switch (type.getCategory())
+                {
+                    case LONG:
+                        pixelsRow.setFieldValue(c, new LongWritable(random.nextLong()));
+                        standardRow[c] = pixelsRow.getFieldValue(c);
+                        break;
+                    case INT:
+                        pixelsRow.setFieldValue(c, new IntWritable(random.nextInt()));
+                        standardRow[c] = pixelsRow.getFieldValue(c);
+                        break;
+                    case DOUBLE:
+                        pixelsRow.setFieldValue(c, new DoubleWritable(random.nextDouble()));
+                        standardRow[c] = pixelsRow.getFieldValue(c);
+                        break;
+                    case DATE:
+                        pixelsRow.setFieldValue(c, new DateWritable(7300 + random.nextInt(14600)));
+                        standardRow[c] = pixelsRow.getFieldValue(c);
+                        break;
+                    case STRING:
+                        pixelsRow.setFieldValue(c, new Text(randomString(random, 64)));
+                        standardRow[c] = pixelsRow.getFieldValue(c);
+                        break;
+                    case CHAR:
+                    {
+                        String value = randomString(random, 2 * type.getMaxLength());
+                        pixelsRow.setFieldValue(c, new Text(value));
+                        standardRow[c] = new HiveCharWritable(new HiveChar(value, type.getMaxLength()));
+                        break;
+                    }
+                    case VARCHAR:
+                    {
+                        String value = randomString(random, 2 * type.getMaxLength());
+                        pixelsRow.setFieldValue(c, new Text(value));
+                        standardRow[c] = new HiveVarcharWritable(new HiveVarchar(value, type.getMaxLength()));
+                        break;
+                    }
+                    default:
+                        throw new IllegalArgumentException("Unexpected type " + type);
+                }
+            }
+            pixelsRows[row] = pixelsRow;
+            standardRows[row] = Arrays.asList(standardRow);
+        }
+
+        this.charValues = new Text[NUM_ROWS];
+        for (int row = 0; row < NUM_ROWS; ++row)
+        {
+            charValues[row] = new Text(randomString(random, 2 * CHAR_LENGTH));
+        }
+
+        this.conf = new Configuration();
+        this.fs = FileSystem.getLocal(conf);
+        this.directory = Files.createTempDirectory("pixels-hive-bench");
+        this.serDe = new PixelsSerDe();
+        List<String> typeNames = new ArrayList<>(types.size());
+        for (TypeDescription type : types)
+        {
+            typeNames.add(type.toString());
+        }
+        Properties table = new Properties();
+        table.setProperty("columns", String.join(",", names));
+        table.setProperty("columns.types", String.join(":", typeNames));
+        serDe.initialize(conf, table);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        fs.delete(new Path(directory.toUri()), true);
+    }
+
+    private static String randomString(Random random, int maxLength)
+    {
+        char[] chars = new char[1 + random.nextInt(maxLength)];
+        for (int i = 0; i < chars.length; ++i)
+        {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public void serialize(Blackhole blackhole) throws SerDeException
+    {
+        for (int row = 0; row < NUM_ROWS; ++row)
+        {
+            blackhole.consume(serDe.serialize(standardRows[row], standardInspector));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public VectorizedRowBatch setColumnBySchema()
+    {
+        batch.reset();
+        List<TypeDescription> types = schema.getChildren();
+        for (int row = 0; row < NUM_ROWS; ++row)
+        {
+            PixelsStruct value = pixelsRows[row];
+            for (int c = 0; c < batch.cols.length; ++c)
+            {
+                PixelsMapredRecordWriter.setColumn(types.get(c), batch.cols[c], row, value.getFieldValue(c));
+            }
+        }
+        batch.size = NUM_ROWS;
+        return batch;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public VectorizedRowBatch setColumnByInspector()
+    {
+        batch.reset();
+        for (int row = 0; row < NUM_ROWS; ++row)
+        {
+            for (int c = 0; c < batch.cols.length; ++c)
+            {
+                StructField field = standardFields.get(c);
+                PixelsMapredRecordWriter.setColumn(row, batch.cols[c], field.getFieldObjectInspector(),
+                        standardInspector.getStructFieldData(standardRows[row], field));
+            }
+        }
+        batch.size = NUM_ROWS;
+        return batch;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public VectorizedRowBatch setCharValue()
+    {
+        batch.reset();
+        // any binary column of the batch works, as the vector is reset for each invocation.
+        BinaryColumnVector vector = null;
+        for (int c = 0; c < batch.cols.length && vector == null; ++c)
+        {
+            if (batch.cols[c] instanceof BinaryColumnVector)
+            {
+                vector = (BinaryColumnVector) batch.cols[c];
+            }
+        }
+        if (vector == null)
+        {
+            vector = new BinaryColumnVector(NUM_ROWS);
+        }
+        for (int row = 0; row < NUM_ROWS; ++row)
+        {
+            PixelsMapredRecordWriter.setCharValue(vector, row, charValues[row], CHAR_LENGTH);
+        }
+        return batch;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILE_ROWS)
+    public void writeFile(FileCounters counters) throws IOException
+    {
+        Path path = new Path(directory.toUri().toString(), "bench-" + fileId++ + ".pxl");
+        PixelsRW.WriterOptions options = PixelsRW.writerOptions(new Properties(), conf)
+                .setSchema(schema).fileSystem(fs);
+        PixelsMapredRecordWriter writer = new PixelsMapredRecordWriter(path, options);
+        for (int row = 0; row < FILE_ROWS; ++row)
+        {
+            writer.write(standardInspector, standardRows[row % NUM_ROWS]);
+        }
+        writer.close(null);
+        counters.bytes += fs.getFileStatus(path).getLen();
+        fs.delete(path, false);
+    }
+}
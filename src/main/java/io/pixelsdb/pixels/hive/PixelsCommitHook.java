@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive;
+
+import io.pixelsdb.pixels.common.metadata.SchemaTableName;
+import io.pixelsdb.pixels.daemon.MetadataProto;
+import io.pixelsdb.pixels.hive.common.PixelsBloomFilterIndex;
+import io.pixelsdb.pixels.hive.common.PixelsManifest;
+import io.pixelsdb.pixels.hive.common.PixelsMetadata;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.hooks.Entity;
+import org.apache.hadoop.hive.ql.hooks.ExecuteWithHookContext;
+import org.apache.hadoop.hive.ql.hooks.HookContext;
+import org.apache.hadoop.hive.ql.hooks.WriteEntity;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The post-execution hook that commits the pixels files written by a query.
+ * <p>
+ * Hive does not call the output committer of the output format, so that this hook
+ * is the job commit of pixels-hive. It collects the manifests of the query in the
+ * locations of the written tables and partitions, i.e., the files named by
+ * {@link PixelsManifest#isManifestName(String)}, and the manifests written by the other
+ * queries on the same tables are left to them.
+ * </p>
+ * <p>
+ * For INSERT OVERWRITE on a table, the files of all the readable layouts of the bound
+ * pixels table are overwritten. As the pixels files are not partitioned, INSERT OVERWRITE
+ * on a partition is rejected before anything is registered. All the files listed in the
+ * manifests are registered and all the overwritten files are removed from pixels metadata
+ * in one transaction, so that either all or none of the outputs of the query are visible to
+ * the readers. Then the manifests and the overwritten files are removed from the storage.
+ * Enable the hook by:
+ * <pre>
+ * set hive.exec.post.hooks=io.pixelsdb.pixels.hive.PixelsCommitHook;
+ * </pre>
+ * </p>
+ * Created at: 2026-10-18
+ */
+public class PixelsCommitHook implements ExecuteWithHookContext
+{
+    private static Logger log = LogManager.getLogger(PixelsCommitHook.class);
+
+    @Override
+    public void run(HookContext hookContext) throws Exception
+    {
+        HiveConf conf = hookContext.getConf();
+        String queryId = hookContext.getQueryPlan().getQueryId();
+        List<MetadataProto.File> newFiles = new ArrayList<>();
+        Set<SchemaTableName> overwrittenTables = new LinkedHashSet<>();
+        List<Path> manifests = new ArrayList<>();
+        for (WriteEntity output : hookContext.getOutputs())
+        {
+            Path location;
+            switch (output.getType())
+            {
+                case TABLE:
+                    location = output.getTable().getDataLocation();
+                    break;
+                case PARTITION:
+                    location = output.getPartition().getDataLocation();
+                    break;
+                default:
+                    continue;
+            }
+            if (location == null || !PixelsSerDe.class.getName().equals(
+                    output.getTable().getSerializationLib()))
+            {
+                continue;
+            }
+            FileSystem fs = location.getFileSystem(conf);
+            if (fs.exists(location))
+            {
+                for (FileStatus status : fs.listStatus(location))
+                {
+                    if (!status.isFile() || !PixelsManifest.isManifestName(status.getPath().getName()))
+                    {
+                        continue;
+                    }
+                    List<MetadataProto.File> listed = PixelsManifest.read(fs, status.getPath(), queryId);
+                    if (listed != null)
+                    {
+                        newFiles.addAll(listed);
+                        manifests.add(status.getPath());
+                    }
+                }
+            }
+
+            if (output.getWriteType() == WriteEntity.WriteType.INSERT_OVERWRITE)
+            {
+                if (output.getType() == Entity.Type.PARTITION)
+                {
+                    throw new IOException("INSERT OVERWRITE on partition " + output.getPartition().getName() +
+                            " is not supported, as the files of pixels tables are not partitioned");
+                }
+                overwrittenTables.add(PixelsMetadata.getBindTable(output.getTable().getMetadata(), conf));
+            }
+        }
+
+        List<Long> oldFileIds = new ArrayList<>();
+        List<Path> oldFilePaths = new ArrayList<>();
+        for (SchemaTableName st : overwrittenTables)
+        {
+            for (io.pixelsdb.pixels.common.metadata.domain.Path dirPath : PixelsMetadata.getReadablePaths(st))
+            {
+                String base = dirPath.getUri().endsWith("/") ? dirPath.getUri() : dirPath.getUri() + "/";
+                // the new files are not registered yet, so they are not listed here.
+                for (MetadataProto.File file : PixelsMetadata.getFiles(Collections.singletonList(dirPath)))
+                {
+                    oldFileIds.add(file.getId());
+                    oldFilePaths.add(new Path(base + file.getName()));
+                }
+            }
+        }
+
+        // nothing is committed and the manifests are kept if the transaction fails.
+        PixelsMetadata.replaceFiles(newFiles, oldFileIds);
+        log.info("registered " + newFiles.size() + " files from " + manifests.size() +
+                " manifests, removed " + oldFileIds.size() + " files of the overwritten tables " + overwrittenTables);
+
+        for (Path manifest : manifests)
+        {
+            FileSystem fs = manifest.getFileSystem(conf);
+            if (!fs.delete(manifest, false))
+            {
+                log.warn("failed to delete the committed manifest " + manifest);
+            }
+        }
+        for (Path path : oldFilePaths)
+        {
+            FileSystem fs = path.getFileSystem(conf);
+            if (!fs.delete(path, false))
+            {
+                log.warn("failed to delete the overwritten file " + path);
+            }
+            fs.delete(PixelsBloomFilterIndex.getIndexPath(path), false);
+        }
+    }
+}
@@ -19,6 +19,7 @@
  */
 package io.pixelsdb.pixels.hive;
 
+import io.pixelsdb.pixels.hive.common.PixelsConf;
 import io.pixelsdb.pixels.hive.common.PixelsStruct;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.serde.serdeConstants;
@@ -40,6 +41,7 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 /**
@@ -93,11 +95,46 @@ public class PixelsSerDe extends AbstractSerDe
 
         ArrayList<TypeInfo> fieldTypes =
                 TypeInfoUtils.getTypeInfosFromTypeString(columnTypeProperty);
+        for (int i = 0; i < fieldTypes.size(); ++i)
+        {
+            checkSupported(columnNames.get(i), fieldTypes.get(i));
+        }
         StructTypeInfo rootType = new StructTypeInfo();
         // The source column names for PIXELS serde that will be used in the schema.
         rootType.setAllStructFieldNames(columnNames);
         rootType.setAllStructFieldTypeInfos(fieldTypes);
-        inspector = PixelsStruct.createObjectInspector(rootType);
+        // the inspectors of the bytes views also accept the writables, so it is
+        // safe if the record reader does not read the values as bytes views.
+        boolean bytesView = PixelsConf.READ_BYTES_VIEW.getBoolean(table, conf);
+        inspector = PixelsStruct.createObjectInspector(rootType, bytesView);
+    }
+
+    /**
+     * Pixels files only have primitive and struct columns, there is no column vector
+     * for the list, map and union types. Reject them when the table is initialized,
+     * instead of failing on the first row read or written.
+     */
+    private static void checkSupported(String column, TypeInfo type) throws SerDeException
+    {
+        switch (type.getCategory())
+        {
+            case PRIMITIVE:
+                break;
+            case STRUCT:
+            {
+                StructTypeInfo struct = (StructTypeInfo) type;
+                List<String> names = struct.getAllStructFieldNames();
+                List<TypeInfo> types = struct.getAllStructFieldTypeInfos();
+                for (int i = 0; i < names.size(); ++i)
+                {
+                    checkSupported(column + "." + names.get(i), types.get(i));
+                }
+                break;
+            }
+            default:
+                throw new SerDeException("column " + column + " of type " + type.getTypeName() +
+                        " is not supported by pixels, only primitive and struct types are supported.");
+        }
     }
 
     @Override
@@ -110,7 +147,8 @@ public class PixelsSerDe extends AbstractSerDe
     public Writable serialize(Object realRow, ObjectInspector objectInspector) throws SerDeException
     {
         row.realRow = realRow;
-        row.inspector = inspector;
+        // the real row is organized by the object inspector of the operator.
+        row.inspector = objectInspector;
         return row;
     }
 
@@ -149,12 +187,12 @@ public class PixelsSerDe extends AbstractSerDe
             throw new UnsupportedOperationException("can't read the bundle");
         }
 
-        ObjectInspector getInspector()
+        public ObjectInspector getInspector()
         {
             return inspector;
         }
 
-        Object getRow()
+        public Object getRow()
         {
             return realRow;
         }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import java.util.List;
+
+/**
+ * The access pattern of a query on a layout of a pixels table, which is recorded when
+ * the splits are planned. The layout optimizer of pixels can retune the split sizes and
+ * projections of the layouts from the access patterns of the real workload.
+ * It is serialized by fastjson with the getters.
+ *
+ * Created at: 2026-10-18
+ */
+public class PixelsAccessPattern
+{
+    private final long timestamp;
+    private final String schemaName;
+    private final String tableName;
+    private final long layoutVersion;
+    private final List<String> includedColumns;
+    private final List<String> predicateColumns;
+    private final int splitSize;
+    private final int numSplits;
+
+    /**
+     * @param timestamp the time when the splits are planned, in milliseconds
+     * @param schemaName the schema of the table
+     * @param tableName the name of the table
+     * @param layoutVersion the version of the layout
+     * @param includedColumns the columns read by the query
+     * @param predicateColumns the columns in the filter pushed down by hive
+     * @param splitSize the number of row groups in a split chosen for the layout
+     * @param numSplits the number of splits planned on the layout
+     */
+    public PixelsAccessPattern(long timestamp, String schemaName, String tableName, long layoutVersion,
+                               List<String> includedColumns, List<String> predicateColumns,
+                               int splitSize, int numSplits)
+    {
+        this.timestamp = timestamp;
+        this.schemaName = schemaName;
+        this.tableName = tableName;
+        this.layoutVersion = layoutVersion;
+        this.includedColumns = includedColumns;
+        this.predicateColumns = predicateColumns;
+        this.splitSize = splitSize;
+        this.numSplits = numSplits;
+    }
+
+    public long getTimestamp()
+    {
+        return timestamp;
+    }
+
+    public String getSchemaName()
+    {
+        return schemaName;
+    }
+
+    public String getTableName()
+    {
+        return tableName;
+    }
+
+    public long getLayoutVersion()
+    {
+        return layoutVersion;
+    }
+
+    public List<String> getIncludedColumns()
+    {
+        return includedColumns;
+    }
+
+    public List<String> getPredicateColumns()
+    {
+        return predicateColumns;
+    }
+
+    public int getSplitSize()
+    {
+        return splitSize;
+    }
+
+    public int getNumSplits()
+    {
+        return numSplits;
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exports the access patterns recorded by the planner to a {@link PixelsAccessPatternSink}.
+ * <p>
+ * The patterns are queued by {@link #export(List)} without blocking the planning, and they are
+ * written by a daemon thread in batches. A batch is written when it has {@link #BATCH_SIZE}
+ * patterns, or {@link #FLUSH_INTERVAL_MILLIS} after its first pattern was taken from the queue,
+ * so that a sink writing a file per batch does not write a file per query. If the sink can not
+ * keep up, the patterns beyond
+ * {@link #QUEUE_CAPACITY} are dropped and counted. There is one exporter per sink in the JVM,
+ * so that the planners of the queries in HiveServer2 share the thread and the sink.
+ * </p>
+ * Created at: 2026-10-18
+ */
+public class PixelsAccessPatternExporter implements Runnable
+{
+    private static Logger log = LogManager.getLogger(PixelsAccessPatternExporter.class);
+
+    public static final int BATCH_SIZE = 256;
+    public static final int QUEUE_CAPACITY = 16384;
+    public static final long FLUSH_INTERVAL_MILLIS = 10000;
+
+    private static final Map<String, PixelsAccessPatternExporter> exporters = new ConcurrentHashMap<>();
+
+    private final PixelsAccessPatternSink sink;
+    private final BlockingQueue<PixelsAccessPattern> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    /**
+     * The batch being filled by the exporter thread, guarded by this.
+     */
+    private List<PixelsAccessPattern> pending = new ArrayList<>(BATCH_SIZE);
+
+    private PixelsAccessPatternExporter(PixelsAccessPatternSink sink)
+    {
+        this.sink = sink;
+    }
+
+    /**
+     * Get the exporter of the sink in {@link PixelsConf#ACCESS_PATTERN_SINK}, it is created
+     * and started on the first call.
+     *
+     * @param conf the configuration of the job
+     * @return the exporter, or null if the export is disabled or the sink can not be created
+     */
+    public static PixelsAccessPatternExporter get(Configuration conf)
+    {
+        String sinkName = PixelsConf.ACCESS_PATTERN_SINK.getString(conf);
+        if (sinkName == null || sinkName.isEmpty())
+        {
+            return null;
+        }
+        PixelsAccessPatternExporter exporter = exporters.get(sinkName);
+        if (exporter != null)
+        {
+            return exporter;
+        }
+        synchronized (exporters)
+        {
+            exporter = exporters.get(sinkName);
+            if (exporter == null)
+            {
+                PixelsAccessPatternSink sink;
+                try
+                {
+                    sink = createSink(sinkName, conf);
+                } catch (Exception e)
+                {
+                    log.error("failed to create the access pattern sink " + sinkName, e);
+                    return null;
+                }
+                exporter = new PixelsAccessPatternExporter(sink);
+                Thread thread = new Thread(exporter, "pixels-access-pattern-exporter");
+                thread.setDaemon(true);
+                thread.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(exporter::flush));
+                exporters.put(sinkName, exporter);
+            }
+            return exporter;
+        }
+    }
+
+    private static PixelsAccessPatternSink createSink(String sinkName, Configuration conf) throws Exception
+    {
+        if (sinkName.equalsIgnoreCase("etcd"))
+        {
+            return new PixelsAccessPatternSink.Etcd(conf);
+        }
+        if (sinkName.startsWith("file://"))
+        {
+            return new PixelsAccessPatternSink.LocalFile(sinkName.substring("file://".length()));
+        }
+        if (sinkName.contains("://"))
+        {
+            return new PixelsAccessPatternSink.FileSystemDir(conf, sinkName);
+        }
+        return (PixelsAccessPatternSink) Class.forName(sinkName)
+                .getConstructor(Configuration.class).newInstance(conf);
+    }
+
+    /**
+     * Queue the patterns to be written, the patterns that do not fit in the queue are dropped.
+     */
+    public void export(List<PixelsAccessPattern> patterns)
+    {
+        for (PixelsAccessPattern pattern : patterns)
+        {
+            if (!queue.offer(pattern))
+            {
+                if (dropped.getAndIncrement() == 0)
+                {
+                    log.warn("the access pattern queue is full, patterns are dropped");
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of patterns dropped as the queue was full
+     */
+    public long getDropped()
+    {
+        return dropped.get();
+    }
+
+    @Override
+    public void run()
+    {
+        // the time to write the pending batch even if it is not full.
+        long deadline = 0;
+        while (!Thread.currentThread().isInterrupted())
+        {
+            try
+            {
+                PixelsAccessPattern next;
+                if (isPendingEmpty())
+                {
+                    next = queue.take();
+                    deadline = System.currentTimeMillis() + FLUSH_INTERVAL_MILLIS;
+                } else
+                {
+                    next = queue.poll(Math.max(0, deadline - System.currentTimeMillis()),
+                            TimeUnit.MILLISECONDS);
+                }
+                synchronized (this)
+                {
+                    if (next != null)
+                    {
+                        pending.add(next);
+                        queue.drainTo(pending, BATCH_SIZE - pending.size());
+                    }
+                    if (pending.size() >= BATCH_SIZE || System.currentTimeMillis() >= deadline)
+                    {
+                        writePending();
+                    }
+                }
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized boolean isPendingEmpty()
+    {
+        return pending.isEmpty();
+    }
+
+    private synchronized void writePending()
+    {
+        if (!pending.isEmpty())
+        {
+            write(pending);
+            pending = new ArrayList<>(BATCH_SIZE);
+        }
+    }
+
+    /**
+     * Write the pending batch and all the queued patterns, it is called when the JVM exits.
+     */
+    public synchronized void flush()
+    {
+        writePending();
+        List<PixelsAccessPattern> batch = new ArrayList<>(BATCH_SIZE);
+        while (queue.drainTo(batch, BATCH_SIZE) > 0)
+        {
+            write(batch);
+            batch = new ArrayList<>(BATCH_SIZE);
+        }
+    }
+
+    private synchronized void write(List<PixelsAccessPattern> batch)
+    {
+        try
+        {
+            sink.write(batch);
+        } catch (Exception e)
+        {
+            // the patterns are advisory, do not fail or retry.
+            log.warn("failed to write " + batch.size() + " access patterns", e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import com.alibaba.fastjson.JSON;
+import io.pixelsdb.pixels.common.utils.EtcdUtil;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * The destination of the access patterns recorded by the planner, the patterns are written
+ * in batches by {@link PixelsAccessPatternExporter} in a background thread. Each pattern is
+ * a line of json. Other sinks can be plugged in by the class name in
+ * {@link PixelsConf#ACCESS_PATTERN_SINK}, they should have a public constructor with the
+ * {@link Configuration} parameter.
+ *
+ * Created at: 2026-10-18
+ */
+public interface PixelsAccessPatternSink
+{
+    void write(List<PixelsAccessPattern> patterns) throws IOException;
+
+    /**
+     * Appends the patterns to a file on the local file system of the planner, e.g., HiveServer2.
+     */
+    class LocalFile implements PixelsAccessPatternSink
+    {
+        private final java.nio.file.Path file;
+
+        public LocalFile(String file)
+        {
+            this.file = Paths.get(file);
+        }
+
+        @Override
+        public void write(List<PixelsAccessPattern> patterns) throws IOException
+        {
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND))
+            {
+                for (PixelsAccessPattern pattern : patterns)
+                {
+                    writer.write(JSON.toJSONString(pattern));
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes each batch of the patterns into a new file in a directory of a hadoop file system,
+     * such as HDFS, as the files can not be appended by concurrent planners.
+     */
+    class FileSystemDir implements PixelsAccessPatternSink
+    {
+        private final Configuration conf;
+        private final Path dir;
+
+        public FileSystemDir(Configuration conf, String dir)
+        {
+            this.conf = conf;
+            this.dir = new Path(dir);
+        }
+
+        @Override
+        public void write(List<PixelsAccessPattern> patterns) throws IOException
+        {
+            FileSystem fs = dir.getFileSystem(conf);
+            Path file = new Path(dir, System.currentTimeMillis() + "-" + UUID.randomUUID() + ".json");
+            try (BufferedWriter writer = HDFSLog.getLogWriter(fs, file.toString()))
+            {
+                for (PixelsAccessPattern pattern : patterns)
+                {
+                    writer.write(JSON.toJSONString(pattern));
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts each batch of the patterns into etcd as the json lines under a key with
+     * {@link #KEY_PREFIX}, where the layout optimizer can watch them. Each key is attached
+     * to a lease of {@link PixelsConf#ACCESS_PATTERN_TTL} seconds, so that the keys that are
+     * not consumed do not accumulate in etcd.
+     */
+    class Etcd implements PixelsAccessPatternSink
+    {
+        public static final String KEY_PREFIX = "pixels_hive_access_pattern_";
+
+        private final long ttlSeconds;
+
+        public Etcd(Configuration conf)
+        {
+            this.ttlSeconds = PixelsConf.ACCESS_PATTERN_TTL.getLong(conf);
+            if (this.ttlSeconds <= 0)
+            {
+                throw new IllegalArgumentException("the ttl of the access patterns in etcd must be positive: " +
+                        this.ttlSeconds);
+            }
+        }
+
+        @Override
+        public void write(List<PixelsAccessPattern> patterns) throws IOException
+        {
+            StringBuilder builder = new StringBuilder();
+            for (PixelsAccessPattern pattern : patterns)
+            {
+                builder.append(JSON.toJSONString(pattern)).append('\n');
+            }
+            EtcdUtil etcd = EtcdUtil.Instance();
+            long leaseId;
+            try
+            {
+                leaseId = etcd.getClient().getLeaseClient().grant(ttlSeconds).get().getID();
+            } catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while granting the lease of the access patterns", e);
+            } catch (ExecutionException e)
+            {
+                throw new IOException("failed to grant the lease of the access patterns", e);
+            }
+            etcd.putKeyValueWithLeaseId(KEY_PREFIX + System.currentTimeMillis() + "_" +
+                    UUID.randomUUID(), builder.toString(), leaseId);
+        }
+    }
+}
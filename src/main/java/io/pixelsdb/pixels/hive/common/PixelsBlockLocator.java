@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import io.pixelsdb.pixels.storage.hdfs.HDFS;
+
+import java.io.IOException;
+
+/**
+ * Gets the length and the block locations of the files to plan the splits.
+ * The default implementation asks HDFS, the in-memory implementation is used
+ * to plan the splits without HDFS.
+ *
+ * Created at: 2026-10-18
+ */
+public interface PixelsBlockLocator
+{
+    long getLength(String path) throws IOException;
+
+    /**
+     * @param path the path of the file
+     * @return the hosts that store the blocks of the file
+     */
+    String[] getHosts(String path) throws IOException;
+
+    class Hdfs implements PixelsBlockLocator
+    {
+        private final HDFS hdfs;
+
+        public Hdfs(HDFS hdfs)
+        {
+            this.hdfs = hdfs;
+        }
+
+        @Override
+        public long getLength(String path) throws IOException
+        {
+            return hdfs.getStatus(path).getLength();
+        }
+
+        @Override
+        public String[] getHosts(String path) throws IOException
+        {
+            return hdfs.getHosts(path);
+        }
+    }
+
+    /**
+     * All the files have the same length, the replicas of each file are placed on
+     * consecutive hosts starting from the hash of the path.
+     */
+    class InMemory implements PixelsBlockLocator
+    {
+        private final String[] hosts;
+        private final int replication;
+        private final long fileLength;
+
+        public InMemory(String[] hosts, int replication, long fileLength)
+        {
+            this.hosts = hosts;
+            this.replication = Math.min(replication, hosts.length);
+            this.fileLength = fileLength;
+        }
+
+        @Override
+        public long getLength(String path)
+        {
+            return fileLength;
+        }
+
+        @Override
+        public String[] getHosts(String path)
+        {
+            String[] res = new String[replication];
+            int start = (path.hashCode() & Integer.MAX_VALUE) % hosts.length;
+            for (int i = 0; i < replication; ++i)
+            {
+                res[i] = hosts[(start + i) % hosts.length];
+            }
+            return res;
+        }
+    }
+}
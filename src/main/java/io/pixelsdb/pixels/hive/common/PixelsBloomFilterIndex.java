@@ -0,0 +1,457 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.BinaryColumnVector;
+import io.pixelsdb.pixels.core.vector.ByteColumnVector;
+import io.pixelsdb.pixels.core.vector.ColumnVector;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.serde2.io.DateWritable;
+import org.apache.hive.common.util.BloomFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The bloom filters of the columns in each row group of a pixels file.
+ * <p>
+ * The pixels file format does not have a place for the bloom filters in the footer,
+ * so that the bloom filters are stored in a sidecar file next to the pixels file,
+ * named by the pixels file name followed by {@link #SUFFIX}. A file without the sidecar
+ * file is not pruned by bloom filters.
+ * </p>
+ * The bloom filters are used to skip the row groups for the EQUALS and IN predicates
+ * on the columns. Only the boolean, integral, date, string, varchar and binary columns
+ * are supported, char columns are not supported as the values are padded in the file.
+ * The boolean values are added as the longs 1 and 0.
+ *
+ * Created at: 2026-10-18
+ */
+public class PixelsBloomFilterIndex
+{
+    public static final String SUFFIX = ".bf";
+    private static final int MAGIC = 0x50584246; // PXBF
+    private static final int VERSION = 1;
+
+    /**
+     * The column names in lower case.
+     */
+    private final List<String> columnNames;
+    /**
+     * The bloom filters indexed by the row group and then the column.
+     */
+    private final List<BloomFilter[]> rowGroups;
+
+    private PixelsBloomFilterIndex(List<String> columnNames, List<BloomFilter[]> rowGroups)
+    {
+        this.columnNames = columnNames;
+        this.rowGroups = rowGroups;
+    }
+
+    public static Path getIndexPath(Path file)
+    {
+        return new Path(file.getParent(), file.getName() + SUFFIX);
+    }
+
+    /**
+     * Check whether the type of the column is supported by bloom filters.
+     *
+     * @param type the type of the column
+     * @return true if it is supported
+     */
+    public static boolean isSupported(TypeDescription type)
+    {
+        switch (type.getCategory())
+        {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case DATE:
+            case STRING:
+            case VARCHAR:
+            case BINARY:
+            case VARBINARY:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Parse the comma separated names of the bloom filter columns.
+     *
+     * @param columns the value of {@link PixelsConf#BLOOM_FILTER_COLUMNS}
+     * @return the trimmed names in lower case, empty if no column has bloom filters
+     */
+    public static List<String> parseColumns(String columns)
+    {
+        List<String> names = new ArrayList<>();
+        for (String column : columns.split(","))
+        {
+            column = column.trim();
+            if (!column.isEmpty())
+            {
+                names.add(column.toLowerCase());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Check whether the bloom filters of the columns may skip row groups for the search
+     * argument, i.e., the search argument has an EQUALS or IN leaf on any of the columns.
+     * The sidecar files are not worth reading otherwise.
+     *
+     * @param sarg the search argument, may be null
+     * @param columns the names of the bloom filter columns in lower case
+     * @return true if the bloom filters may be used
+     */
+    public static boolean canSelect(SearchArgument sarg, Collection<String> columns)
+    {
+        if (sarg == null || columns.isEmpty())
+        {
+            return false;
+        }
+        for (PredicateLeaf leaf : sarg.getLeaves())
+        {
+            if (isUsable(leaf) && columns.contains(leaf.getColumnName().toLowerCase()))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUsable(PredicateLeaf leaf)
+    {
+        return leaf.getOperator() == PredicateLeaf.Operator.EQUALS ||
+                leaf.getOperator() == PredicateLeaf.Operator.IN;
+    }
+
+    public int getNumRowGroup()
+    {
+        return rowGroups.size();
+    }
+
+    /**
+     * Builds the bloom filters of the row groups while the file is written.
+     */
+    public static class Builder
+    {
+        private final List<String> columnNames = new ArrayList<>();
+        private final int[] columnIds;
+        private final long expectedEntries;
+        private final double fpp;
+        private final List<BloomFilter[]> rowGroups = new ArrayList<>();
+        private BloomFilter[] current = null;
+
+        /**
+         * @param schema the schema of the file
+         * @param columns the names of the columns to build bloom filters
+         * @param expectedEntries the expected number of rows in a row group
+         * @param fpp the false positive probability of the bloom filters
+         */
+        public Builder(TypeDescription schema, List<String> columns, long expectedEntries, double fpp)
+        {
+            List<String> fieldNames = schema.getFieldNames();
+            List<TypeDescription> children = schema.getChildren();
+            this.columnIds = new int[columns.size()];
+            for (int i = 0; i < columns.size(); ++i)
+            {
+                String column = columns.get(i).trim().toLowerCase();
+                int id = -1;
+                for (int j = 0; j < fieldNames.size(); ++j)
+                {
+                    if (fieldNames.get(j).equalsIgnoreCase(column))
+                    {
+                        id = j;
+                        break;
+                    }
+                }
+                if (id < 0)
+                {
+                    throw new IllegalArgumentException("bloom filter column '" + column +
+                            "' is not found in " + fieldNames);
+                }
+                if (!isSupported(children.get(id)))
+                {
+                    throw new IllegalArgumentException("bloom filter is not supported on column '" +
+                            column + "' of type " + children.get(id));
+                }
+                this.columnNames.add(column);
+                this.columnIds[i] = id;
+            }
+            this.expectedEntries = Math.max(1, expectedEntries);
+            this.fpp = fpp;
+        }
+
+        /**
+         * Add the values in the row batch into the bloom filters of the current row group.
+         *
+         * @param batch the row batch to be written
+         */
+        public void add(VectorizedRowBatch batch)
+        {
+            if (batch.size == 0)
+            {
+                return;
+            }
+            if (current == null)
+            {
+                current = new BloomFilter[columnIds.length];
+                for (int i = 0; i < columnIds.length; ++i)
+                {
+                    current[i] = new BloomFilter(expectedEntries, fpp);
+                }
+            }
+            for (int i = 0; i < columnIds.length; ++i)
+            {
+                ColumnVector vector = batch.cols[columnIds[i]];
+                int size = vector.isRepeating() ? 1 : batch.size;
+                if (vector instanceof LongColumnVector)
+                {
+                    long[] values = ((LongColumnVector) vector).vector;
+                    for (int row = 0; row < size; ++row)
+                    {
+                        if (vector.noNulls || !vector.isNull[row])
+                        {
+                            current[i].addLong(values[row]);
+                        }
+                    }
+                } else if (vector instanceof ByteColumnVector)
+                {
+                    byte[] values = ((ByteColumnVector) vector).vector;
+                    for (int row = 0; row < size; ++row)
+                    {
+                        if (vector.noNulls || !vector.isNull[row])
+                        {
+                            current[i].addLong(values[row] != 0 ? 1 : 0);
+                        }
+                    }
+                } else
+                {
+                    BinaryColumnVector binary = (BinaryColumnVector) vector;
+                    for (int row = 0; row < size; ++row)
+                    {
+                        if (vector.noNulls || !vector.isNull[row])
+                        {
+                            current[i].addBytes(binary.vector[row], binary.start[row], binary.lens[row]);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Finish the bloom filters of the current row group, it is called after the
+         * row group is flushed by the pixels writer.
+         */
+        public void finishRowGroup()
+        {
+            if (current != null)
+            {
+                rowGroups.add(current);
+                current = null;
+            }
+        }
+
+        public int getNumRowGroup()
+        {
+            return rowGroups.size();
+        }
+
+        /**
+         * Write the bloom filters into the sidecar file of the pixels file.
+         *
+         * @param fs the file system
+         * @param file the path of the pixels file
+         * @throws IOException
+         */
+        public void write(FileSystem fs, Path file) throws IOException
+        {
+            finishRowGroup();
+            try (FSDataOutputStream output = fs.create(getIndexPath(file), true))
+            {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(columnNames.size());
+                for (String columnName : columnNames)
+                {
+                    output.writeUTF(columnName);
+                }
+                output.writeInt(rowGroups.size());
+                for (BloomFilter[] filters : rowGroups)
+                {
+                    for (BloomFilter filter : filters)
+                    {
+                        long[] bits = filter.getBitSet();
+                        output.writeInt(filter.getNumHashFunctions());
+                        output.writeInt(bits.length);
+                        for (long word : bits)
+                        {
+                            output.writeLong(word);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the bloom filters of a pixels file.
+     *
+     * @param fs the file system
+     * @param file the path of the pixels file
+     * @return the bloom filters, or null if the file does not have bloom filters
+     * @throws IOException
+     */
+    public static PixelsBloomFilterIndex read(FileSystem fs, Path file) throws IOException
+    {
+        Path indexPath = getIndexPath(file);
+        if (!fs.exists(indexPath))
+        {
+            return null;
+        }
+        try (FSDataInputStream input = fs.open(indexPath))
+        {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION)
+            {
+                throw new IOException("illegal bloom filter file " + indexPath);
+            }
+            int numColumns = input.readInt();
+            List<String> columnNames = new ArrayList<>(numColumns);
+            for (int i = 0; i < numColumns; ++i)
+            {
+                columnNames.add(input.readUTF());
+            }
+            int numRowGroups = input.readInt();
+            List<BloomFilter[]> rowGroups = new ArrayList<>(numRowGroups);
+            for (int rg = 0; rg < numRowGroups; ++rg)
+            {
+                BloomFilter[] filters = new BloomFilter[numColumns];
+                for (int i = 0; i < numColumns; ++i)
+                {
+                    int numHashFunctions = input.readInt();
+                    long[] bits = new long[input.readInt()];
+                    for (int j = 0; j < bits.length; ++j)
+                    {
+                        bits[j] = input.readLong();
+                    }
+                    filters[i] = new BloomFilter(bits, numHashFunctions);
+                }
+                rowGroups.add(filters);
+            }
+            return new PixelsBloomFilterIndex(columnNames, rowGroups);
+        }
+    }
+
+    /**
+     * Check whether the column value may exist in the bloom filter.
+     *
+     * @return false if the value definitely does not exist
+     */
+    private static boolean mightContain(BloomFilter filter, PredicateLeaf.Type type, Object literal)
+    {
+        if (literal == null)
+        {
+            return true;
+        }
+        switch (type)
+        {
+            case LONG:
+                return filter.testLong(((Number) literal).longValue());
+            case BOOLEAN:
+                return filter.testLong((Boolean) literal ? 1 : 0);
+            case DATE:
+                return filter.testLong(DateWritable.dateToDays((java.sql.Date) literal));
+            case STRING:
+                return filter.testBytes(literal.toString().getBytes(StandardCharsets.UTF_8));
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Evaluate the search argument on the bloom filters of each row group.
+     *
+     * @param sarg the search argument
+     * @return whether each row group may contain the rows that satisfy the search argument
+     */
+    public boolean[] select(SearchArgument sarg)
+    {
+        List<PredicateLeaf> leaves = sarg.getLeaves();
+        int[] leafColumns = new int[leaves.size()];
+        for (int i = 0; i < leaves.size(); ++i)
+        {
+            PredicateLeaf leaf = leaves.get(i);
+            leafColumns[i] = isUsable(leaf) ? columnNames.indexOf(leaf.getColumnName().toLowerCase()) : -1;
+        }
+
+        boolean[] selected = new boolean[rowGroups.size()];
+        SearchArgument.TruthValue[] truthValues = new SearchArgument.TruthValue[leaves.size()];
+        for (int rg = 0; rg < rowGroups.size(); ++rg)
+        {
+            BloomFilter[] filters = rowGroups.get(rg);
+            for (int i = 0; i < leaves.size(); ++i)
+            {
+                truthValues[i] = SearchArgument.TruthValue.YES_NO_NULL;
+                if (leafColumns[i] < 0)
+                {
+                    continue;
+                }
+                PredicateLeaf leaf = leaves.get(i);
+                BloomFilter filter = filters[leafColumns[i]];
+                boolean found;
+                if (leaf.getOperator() == PredicateLeaf.Operator.EQUALS)
+                {
+                    found = mightContain(filter, leaf.getType(), leaf.getLiteral());
+                } else
+                {
+                    found = false;
+                    for (Object literal : leaf.getLiteralList())
+                    {
+                        if (mightContain(filter, leaf.getType(), literal))
+                        {
+                            found = true;
+                            break;
+                        }
+                    }
+                }
+                if (!found)
+                {
+                    truthValues[i] = SearchArgument.TruthValue.NO_NULL;
+                }
+            }
+            selected[rg] = sarg.evaluate(truthValues).isNeeded();
+        }
+        return selected;
+    }
+}
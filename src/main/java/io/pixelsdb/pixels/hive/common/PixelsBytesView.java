@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.hadoop.io.WritableUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A string or binary value that refers to the bytes in the buffer of a column vector,
+ * instead of copying the bytes into a {@link Text} or a {@link BytesWritable}.
+ * <p>
+ * Like the lazy objects of hive, the view is only valid until the next row batch
+ * is read. The operators that keep the value copy it by
+ * {@link org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector#copyObject(Object)}.
+ * The bytes are copied into a Text or a BytesWritable owned by the view only
+ * if an operator asks for the writable object.
+ * </p>
+ * Created at: 2026-10-18
+ */
+public class PixelsBytesView implements WritableComparable<PixelsBytesView>
+{
+    private byte[] bytes;
+    private int start;
+    private int length;
+    private Text text = null;
+    private BytesWritable binary = null;
+    /**
+     * Whether the text or the binary holds the current bytes.
+     */
+    private boolean copied = false;
+
+    public PixelsBytesView()
+    {
+        this.bytes = new byte[0];
+        this.start = 0;
+        this.length = 0;
+    }
+
+    /**
+     * Make the view refer to the bytes, they are not copied.
+     */
+    public void set(byte[] bytes, int start, int length)
+    {
+        this.bytes = bytes;
+        this.start = start;
+        this.length = length;
+        this.copied = false;
+    }
+
+    public byte[] getBytes()
+    {
+        return bytes;
+    }
+
+    public int getStart()
+    {
+        return start;
+    }
+
+    public int getLength()
+    {
+        return length;
+    }
+
+    /**
+     * @return the text that holds a copy of the bytes, it is reused by this view
+     */
+    public Text getText()
+    {
+        if (text == null)
+        {
+            text = new Text();
+        }
+        if (!copied)
+        {
+            text.set(bytes, start, length);
+            copied = true;
+        }
+        return text;
+    }
+
+    /**
+     * @return the bytes writable that holds a copy of the bytes, it is reused by this view
+     */
+    public BytesWritable getBinary()
+    {
+        if (binary == null)
+        {
+            binary = new BytesWritable();
+        }
+        if (!copied)
+        {
+            binary.set(bytes, start, length);
+            copied = true;
+        }
+        return binary;
+    }
+
+    /**
+     * @return a copy of the bytes in a new array
+     */
+    public byte[] copyBytes()
+    {
+        byte[] result = new byte[length];
+        System.arraycopy(bytes, start, result, 0, length);
+        return result;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException
+    {
+        WritableUtils.writeVInt(out, length);
+        out.write(bytes, start, length);
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException
+    {
+        int newLength = WritableUtils.readVInt(in);
+        byte[] newBytes = new byte[newLength];
+        in.readFully(newBytes, 0, newLength);
+        set(newBytes, 0, newLength);
+    }
+
+    @Override
+    public int compareTo(PixelsBytesView other)
+    {
+        return WritableComparator.compareBytes(bytes, start, length,
+                other.bytes, other.start, other.length);
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+        return other instanceof PixelsBytesView && compareTo((PixelsBytesView) other) == 0;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return WritableComparator.hashBytes(bytes, start, length);
+    }
+
+    @Override
+    public String toString()
+    {
+        return new String(bytes, start, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import io.etcd.jetcd.KeyValue;
+import io.pixelsdb.pixels.cache.PixelsCacheUtil;
+import io.pixelsdb.pixels.common.metadata.SchemaTableName;
+import io.pixelsdb.pixels.common.utils.Constants;
+import io.pixelsdb.pixels.common.utils.EtcdUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The registry of pixels cache, which tells the cached table and the node that caches each file.
+ * The default implementation reads etcd, the in-memory implementation is used to plan
+ * the splits without etcd.
+ *
+ * Created at: 2026-10-18
+ */
+public interface PixelsCacheRegistry
+{
+    /**
+     * @return the table that is cached, or null if no table is cached
+     */
+    SchemaTableName getCachedTable();
+
+    /**
+     * @return the current version of the cache, or null if the cache is not found
+     */
+    String getCacheVersion();
+
+    /**
+     * @param cacheVersion the version of the cache
+     * @return the map from the path of the cached file to the hostname of the node that caches it,
+     * empty if no file is cached in this version
+     */
+    Map<String, String> getFileLocations(String cacheVersion);
+
+    class Etcd implements PixelsCacheRegistry
+    {
+        @Override
+        public SchemaTableName getCachedTable()
+        {
+            KeyValue keyValue = EtcdUtil.Instance().getKeyValue(Constants.LAYOUT_VERSION_LITERAL);
+            if (keyValue == null)
+            {
+                return null;
+            }
+            String value = keyValue.getValue().toString(StandardCharsets.UTF_8);
+            // PIXELS-636: get schema and table name from etcd instead of config file.
+            String[] splits = value.split(":");
+            checkArgument(splits.length == 2, "invalid value for key '" +
+                    Constants.LAYOUT_VERSION_LITERAL + "' in etcd: " + value);
+            return new SchemaTableName(splits[0]);
+        }
+
+        @Override
+        public String getCacheVersion()
+        {
+            KeyValue keyValue = EtcdUtil.Instance().getKeyValue(Constants.CACHE_VERSION_LITERAL);
+            return keyValue == null ? null : keyValue.getValue().toString(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public Map<String, String> getFileLocations(String cacheVersion)
+        {
+            List<KeyValue> nodeFiles = EtcdUtil.Instance().getKeyValuesByPrefix(
+                    Constants.CACHE_LOCATION_LITERAL + cacheVersion);
+            Map<String, String> fileLocations = new HashMap<>();
+            for (KeyValue kv : nodeFiles)
+            {
+                String node = PixelsCacheUtil.getHostnameFromCacheLocationLiteral(
+                        kv.getKey().toString(StandardCharsets.UTF_8));
+                String[] files = kv.getValue().toString(StandardCharsets.UTF_8).split(";");
+                for (String file : files)
+                {
+                    fileLocations.put(file, node);
+                }
+            }
+            return fileLocations;
+        }
+    }
+
+    class InMemory implements PixelsCacheRegistry
+    {
+        private final SchemaTableName cachedTable;
+        private final String cacheVersion;
+        private final Map<String, String> fileLocations;
+
+        /**
+         * @param cachedTable the cached table, may be null
+         * @param cacheVersion the version of the cache, may be null
+         * @param fileLocations the map from file path to the hostname of the node that caches it
+         */
+        public InMemory(SchemaTableName cachedTable, String cacheVersion, Map<String, String> fileLocations)
+        {
+            this.cachedTable = cachedTable;
+            this.cacheVersion = cacheVersion;
+            this.fileLocations = fileLocations;
+        }
+
+        @Override
+        public SchemaTableName getCachedTable()
+        {
+            return cachedTable;
+        }
+
+        @Override
+        public String getCacheVersion()
+        {
+            return cacheVersion;
+        }
+
+        @Override
+        public Map<String, String> getFileLocations(String cacheVersion)
+        {
+            return cacheVersion.equals(this.cacheVersion) ? fileLocations : Collections.emptyMap();
+        }
+    }
+}
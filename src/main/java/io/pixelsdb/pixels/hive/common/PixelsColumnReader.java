@@ -0,0 +1,598 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.BinaryColumnVector;
+import io.pixelsdb.pixels.core.vector.ByteColumnVector;
+import io.pixelsdb.pixels.core.vector.ColumnVector;
+import io.pixelsdb.pixels.core.vector.DecimalColumnVector;
+import io.pixelsdb.pixels.core.vector.DoubleColumnVector;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.StructColumnVector;
+import io.pixelsdb.pixels.core.vector.TimestampColumnVector;
+import org.apache.hadoop.hive.serde2.io.DateWritable;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.apache.hadoop.hive.serde2.io.TimestampWritable;
+import org.apache.hadoop.io.*;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads the values of a column from its column vectors into a writable.
+ * <p>
+ * The reader is created once for each projected column by the record readers,
+ * so that the type of the column is only resolved at construction time instead
+ * of for each value. It is the only mapping from the column types to the writables
+ * in the read path. Each reader owns the writable it returns, the writable is reused
+ * for the next value read by the same reader.
+ * </p>
+ * <p>
+ * The reader is bound to the column vector of each row batch. The vector is checked
+ * once in {@link #bind(ColumnVector, int)} for whether it is repeating, all null or
+ * has no nulls, so that a repeating value is decoded only once for the batch, and the
+ * null flags are not checked for each row if there is no null in the batch.
+ * </p>
+ * Created at: 2026-10-18
+ */
+public abstract class PixelsColumnReader
+{
+    private static final int NO_NULLS = 0;
+    private static final int NULLABLE = 1;
+    private static final int REPEATING = 2;
+    private static final int ALL_NULL = 3;
+
+    /**
+     * The max precision of the decimals whose unscaled values fit in a long.
+     */
+    public static final int MAX_SHORT_DECIMAL_PRECISION = 18;
+
+    private int mode = ALL_NULL;
+    private boolean[] isNull;
+    private Writable repeatingValue;
+
+    /**
+     * Bind the reader to the column vector of a new row batch.
+     *
+     * @param vector the column vector, it should be of the type of this reader
+     * @param size the number of rows in the row batch
+     */
+    public void bind(ColumnVector vector, int size)
+    {
+        this.isNull = vector.isNull;
+        this.repeatingValue = null;
+        if (vector.isRepeating())
+        {
+            if (vector.noNulls || !vector.isNull[0])
+            {
+                bindVector(vector, 1);
+                this.repeatingValue = decode(0);
+                this.mode = REPEATING;
+            } else
+            {
+                this.mode = ALL_NULL;
+            }
+        } else if (vector.noNulls)
+        {
+            bindVector(vector, size);
+            this.mode = NO_NULLS;
+        } else
+        {
+            int numNulls = 0;
+            for (int row = 0; row < size; ++row)
+            {
+                if (vector.isNull[row])
+                {
+                    numNulls++;
+                }
+            }
+            if (numNulls == size)
+            {
+                this.mode = ALL_NULL;
+            } else
+            {
+                bindVector(vector, size);
+                this.mode = numNulls == 0 ? NO_NULLS : NULLABLE;
+            }
+        }
+    }
+
+    /**
+     * @return true if the value is the same for all the rows in the bound row batch
+     */
+    public boolean isConstant()
+    {
+        return mode == REPEATING || mode == ALL_NULL;
+    }
+
+    /**
+     * Read the value of the row in the bound column vector.
+     *
+     * @param row the row id in the vector
+     * @return the value, null if the value is null
+     */
+    public Writable read(int row)
+    {
+        switch (mode)
+        {
+            case NO_NULLS:
+                return decode(row);
+            case NULLABLE:
+                return isNull[row] ? null : decode(row);
+            case REPEATING:
+                return repeatingValue;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Keep the typed reference to the values of the column vector.
+     *
+     * @param vector the column vector
+     * @param size the number of rows to be decoded from the vector
+     */
+    protected abstract void bindVector(ColumnVector vector, int size);
+
+    /**
+     * Decode the non-null value of the row into the writable of this reader.
+     *
+     * @param row the row id in the bound vector
+     * @return the writable
+     */
+    protected abstract Writable decode(int row);
+
+    /**
+     * Create the reader of a column.
+     *
+     * @param type the type of the column
+     * @param bytesView whether the string and binary values are read as {@link PixelsBytesView}
+     * @return the reader
+     */
+    public static PixelsColumnReader create(TypeDescription type, boolean bytesView)
+    {
+        return create(type, null, Collections.emptySet(), bytesView);
+    }
+
+    /**
+     * Create the reader of a column, only the children in the nested column paths
+     * are decoded for the struct columns.
+     *
+     * @param type the type of the column
+     * @param path the lower case path of the column, e.g., s.a, it is not used if nestedPaths is empty
+     * @param nestedPaths the lower case nested column paths projected by hive
+     * @param bytesView whether the string and binary values are read as {@link PixelsBytesView}
+     * @return the reader
+     * @throws IllegalArgumentException if the type, e.g., TIME, is not supported by hive
+     */
+    public static PixelsColumnReader create(TypeDescription type, String path,
+                                            Set<String> nestedPaths, boolean bytesView)
+    {
+        switch (type.getCategory())
+        {
+            case BOOLEAN:
+                return new BooleanReader();
+            case BYTE:
+                return new ByteReader();
+            case SHORT:
+                return new ShortReader();
+            case INT:
+                return new IntReader();
+            case LONG:
+                return new LongReader();
+            case FLOAT:
+                return new FloatReader();
+            case DOUBLE:
+                return new DoubleReader();
+            case DECIMAL:
+                if (type.getPrecision() > MAX_SHORT_DECIMAL_PRECISION)
+                {
+                    throw new IllegalArgumentException("Decimal with precision > " +
+                            MAX_SHORT_DECIMAL_PRECISION + " is not supported: " + type);
+                }
+                return new DecimalReader();
+            case STRING:
+                return bytesView ? new BytesViewReader() : new StringReader();
+            case CHAR:
+            case VARCHAR:
+                return new StringReader();
+            case BINARY:
+            case VARBINARY:
+                return bytesView ? new BytesViewReader() : new BinaryReader();
+            case DATE:
+                return new DateReader();
+            case TIMESTAMP:
+                return new TimestampReader();
+            case STRUCT:
+                return new StructReader(type, path, nestedPaths, bytesView);
+            case TIME:
+                throw new IllegalArgumentException("TIME columns are not supported by hive" +
+                        (path == null ? "" : ", column " + path + " can not be read"));
+            default:
+                throw new IllegalArgumentException("Unknown type " + type);
+        }
+    }
+
+    /**
+     * Create the readers of the projected columns.
+     *
+     * @param schema the schema of the file
+     * @param pixelsIncluded the ids of the projected columns in the file
+     * @param nestedPaths the lower case nested column paths projected by hive
+     * @param bytesView whether the string and binary values are read as {@link PixelsBytesView}
+     * @return the readers, in the order of the projected columns
+     */
+    public static PixelsColumnReader[] create(TypeDescription schema, int[] pixelsIncluded,
+                                              Set<String> nestedPaths, boolean bytesView)
+    {
+        List<String> columnNames = schema.getFieldNames();
+        List<TypeDescription> columnTypes = schema.getChildren();
+        PixelsColumnReader[] readers = new PixelsColumnReader[pixelsIncluded.length];
+        for (int i = 0; i < pixelsIncluded.length; ++i)
+        {
+            readers[i] = create(columnTypes.get(pixelsIncluded[i]),
+                    columnNames.get(pixelsIncluded[i]).toLowerCase(), nestedPaths, bytesView);
+        }
+        return readers;
+    }
+
+    /**
+     * Check whether a nested column is projected. Hive only lists the nested paths
+     * of a struct if some of its children are accessed, e.g. s.a in SELECT s.a FROM t,
+     * the whole struct is projected if none of its children is listed.
+     *
+     * @param parent the path of the struct
+     * @param path the path of the child in the struct
+     * @param nestedPaths the nested column paths projected by hive
+     * @return true if the child should be read
+     */
+    static boolean isProjected(String parent, String path, Set<String> nestedPaths)
+    {
+        if (parent == null || nestedPaths.isEmpty() || nestedPaths.contains(parent))
+        {
+            return true;
+        }
+        String parentPrefix = parent + ".";
+        String prefix = path + ".";
+        boolean listed = false;
+        for (String nestedPath : nestedPaths)
+        {
+            if (nestedPath.equals(path) || nestedPath.startsWith(prefix))
+            {
+                return true;
+            }
+            listed |= nestedPath.startsWith(parentPrefix);
+        }
+        return !listed;
+    }
+
+    static final class BooleanReader extends PixelsColumnReader
+    {
+        private final BooleanWritable result = new BooleanWritable();
+        private byte[] values;
+
+        @Override
+        protected void bindVector(ColumnVector vector, int size)
+        {
+            this.values = ((ByteColumnVector) vector).vector;
+        }
+
+        @Override
+        protected Writable decode(int row)
+        {
+            result.set(values[row] != 0);
+            return result;
+        }
+    }
+
+    static final class ByteReader extends PixelsColumnReader
+    {
+        private final ByteWritable result = new ByteWritable();
+        private long[] values;
+
+        @Override
+        protected void bindVector(ColumnVector vector, int size)
+        {
+            this.values = ((LongColumnVector) vector).vector;
+        }
+
+        @Override
+        protected Writable decode(int row)
+        {
+            result.set((byte) values[row]);
+            return result;
+        }
+    }
+
+    static final class ShortReader extends PixelsColumnReader
+    {
+        private final ShortWritable result = new ShortWritable();
+        private long[] values;
+
+        @Override
+        protected void bindVector(ColumnVector vector, int size)
+        {
+            this.values = ((LongColumnVector) vector).vector;
+        }
+
+        @Override
+        protected Writable decode(int row)
+        {
+            result.set((short) values[row]);
+            return result;
+        }
+    }
+
+    static final class IntReader extends PixelsColumnReader
+    {
+        private final IntWritable result = new IntWritable();
+        private long[] values;
+
+        @Override
+        protected void bindVector(ColumnVector vector, int size)
+        {
+            this.values = ((LongColumnVector) vector).vector;
+        }
+
+        @Override
+        protected Writable decode(int row)
+        {
+            result.set((int) values[row]);
+            return result;
+        }
+    }
+
+    static final class LongReader extends PixelsColumnReader
+    {
+        private final LongWritable result = new LongWritable();
+        private long[] values;
+
+        @Override
+        protected void bindVector(ColumnVector vector, int size)
+        {
+            this.values = ((LongColumnVector) vector).vector;
+        }
+
+        @Override
+        protected Writable decode(int row)
+        {
+            result.set(values[row]);
+            return result;
+        }
+    }
+
+    static final class FloatReader extends PixelsColumnReader
+    {
+        private final FloatWritable result = new FloatWritable();
+        private long[] values;
+
+        @Override
+        protected void bindVector(ColumnVector vector, int size)
+        {
+            this.values = ((DoubleColumnVector) vector).vector;
+        }
+
+        @Override
+        protected Writable decode(int row)
+        {
+            result.set(Float.intBitsToFloat((int) values[row]));
+            return result;
+        }
+    }
+
+    static final class DoubleReader extends PixelsColumnReader
+    {
+        private final DoubleWritable result = new DoubleWritable();
+        private long[] values;
+
+        @Override
+        protected void bindVector(ColumnVector vector, int size)
+        {
+            this.values = ((DoubleColumnVector) vector).vector;
+        }
+
+        @Override
+        protected Writable decode(int row)
+        {
+            result.set(Double.longBitsToDouble(values[row]));
+            return result;
+        }
+    }
+
+    static final class DecimalReader extends PixelsColumnReader
+    {
+        private final HiveDecimalWritable result = new HiveDecimalWritable();
+        private long[] values;
+        private int scale;
+
+        @Override
+        protected void bindVector(ColumnVector vector, int size)
+        {
+            DecimalColumnVector decimals = (DecimalColumnVector) vector;
+            this.values = decimals.vector;
+            this.scale = decimals.scale;
+        }
+
+        @Override
+        protected Writable decode(int row)
+        {
+            // the unscaled value is set without going through BigDecimal.
+            result.setFromLongAndScale(values[row], scale);
+            return result;
+        }
+    }
+
+    static final class StringReader extends PixelsColumnReader
+    {
+        private final Text result = new Text();
+        private BinaryColumnVector bytes;
+
+        @Override
+        protected void bindVector(ColumnVector vector, int size)
+        {
+            this.bytes = (BinaryColumnVector) vector;
+        }
+
+        @Override
+        protected Writable decode(int row)
+        {
+            result.set(bytes.vector[row], bytes.start[row], bytes.lens[row]);
+            return result;
+        }
+    }
+
+    static final class BinaryReader extends PixelsColumnReader
+    {
+        private final BytesWritable result = new BytesWritable();
+        private BinaryColumnVector bytes;
+
+        @Override
+        protected void bindVector(ColumnVector vector, int size)
+        {
+            this.bytes = (BinaryColumnVector) vector;
+        }
+
+        @Override
+        protected Writable decode(int row)
+        {
+            result.set(bytes.vector[row], bytes.start[row], bytes.lens[row]);
+            return result;
+        }
+    }
+
+    static final class BytesViewReader extends PixelsColumnReader
+    {
+        private final PixelsBytesView result = new PixelsBytesView();
+        private BinaryColumnVector bytes;
+
+        @Override
+        protected void bindVector(ColumnVector vector, int size)
+        {
+            this.bytes = (BinaryColumnVector) vector;
+        }
+
+        @Override
+        protected Writable decode(int row)
+        {
+            // refer to the buffer of the column vector without copying.
+            result.set(bytes.vector[row], bytes.start[row], bytes.lens[row]);
+            return result;
+        }
+    }
+
+    static final class DateReader extends PixelsColumnReader
+    {
+        private final DateWritable result = new DateWritable();
+        private long[] values;
+
+        @Override
+        protected void bindVector(ColumnVector vector, int size)
+        {
+            this.values = ((LongColumnVector) vector).vector;
+        }
+
+        @Override
+        protected Writable decode(int row)
+        {
+            result.set((int) values[row]);
+            return result;
+        }
+    }
+
+    static final class TimestampReader extends PixelsColumnReader
+    {
+        private final TimestampWritable result = new TimestampWritable();
+        /**
+         * The scratch timestamp that is copied into the writable for each value.
+         */
+        private final Timestamp timestamp = new Timestamp(0);
+        private TimestampColumnVector timestamps;
+
+        @Override
+        protected void bindVector(ColumnVector vector, int size)
+        {
+            this.timestamps = (TimestampColumnVector) vector;
+        }
+
+        @Override
+        protected Writable decode(int row)
+        {
+            timestamp.setTime(timestamps.getTime(row));
+            timestamp.setNanos(timestamps.getNanos(row));
+            result.set(timestamp);
+            return result;
+        }
+    }
+
+    static final class StructReader extends PixelsColumnReader
+    {
+        private final PixelsColumnReader[] children;
+        private final PixelsStruct result;
+
+        /**
+         * The ids of the children to be decoded, the other children are left null.
+         */
+        private final int[] projected;
+
+        StructReader(TypeDescription type, String path, Set<String> nestedPaths, boolean bytesView)
+        {
+            List<String> childrenNames = type.getFieldNames();
+            List<TypeDescription> childrenTypes = type.getChildren();
+            this.children = new PixelsColumnReader[childrenTypes.size()];
+            int[] projected = new int[children.length];
+            int numProjected = 0;
+            for (int f = 0; f < children.length; ++f)
+            {
+                String childPath = path == null ? null : path + "." + childrenNames.get(f).toLowerCase();
+                if (isProjected(path, childPath, nestedPaths))
+                {
+                    children[f] = create(childrenTypes.get(f), childPath, nestedPaths, bytesView);
+                    projected[numProjected++] = f;
+                }
+            }
+            this.projected = Arrays.copyOf(projected, numProjected);
+            this.result = new PixelsStruct(children.length);
+        }
+
+        @Override
+        protected void bindVector(ColumnVector vector, int size)
+        {
+            StructColumnVector struct = (StructColumnVector) vector;
+            for (int f : projected)
+            {
+                children[f].bind(struct.fields[f], size);
+            }
+        }
+
+        @Override
+        protected Writable decode(int row)
+        {
+            for (int f : projected)
+            {
+                result.setFieldValue(f, children[f].read(row));
+            }
+            return result;
+        }
+    }
+}
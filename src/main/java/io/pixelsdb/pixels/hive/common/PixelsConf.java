@@ -36,7 +36,8 @@ public enum PixelsConf
                     " number of rows n index entry represents.)"),
     STRIPE_SIZE("pixels.stripe.size", "hive.exec.pixels.default.stripe.size",
             64L * 1024 * 1024,
-            "Define the default Pixels stripe size, in bytes."),
+            "Define the default Pixels stripe size, in bytes. It is the target\n" +
+                    "size of the row groups, and the memory budget of each writer."),
     BLOCK_SIZE("pixels.block.size", "hive.exec.pixels.default.block.size",
             256L * 1024 * 1024,
             "Define the default file system block size for Pixels files."),
@@ -51,12 +52,85 @@ public enum PixelsConf
             "Define the encoding level to use while writing data. Changing this\n" +
                     "will only affect the light weight encoding for columns. This\n" +
                     "flag will not change the compression level of higher level\n" +
-                    "compression codec (like ZLIB)."),
+                    "compression codec (like ZLIB). 'auto' selects the level of each\n" +
+                    "file by sampling the first row batch written into it."),
+    ENCODING_AUTO_MIN_GAIN("pixels.encoding.auto.min.gain",
+            "hive.exec.pixels.encoding.auto.min.gain", 0.1,
+            "In auto encoding level, an encoding is enabled only if it is estimated\n" +
+                    "to reduce the size of the sampled rows by at least this fraction, as\n" +
+                    "the encoded values are slower to decode than the plain values."),
     COMPRESSION_STRATEGY("pixels.compression.strategy",
             "hive.exec.pixels.compression.strategy", 1,
-            "Define the compression strategy to use while writing data.\n" +
-                    "This changes the compression level of higher level compression\n" +
-                    "codec (like ZLIB)."),
+            "Deprecated, use pixels.compression.block.size instead. It was\n" +
+                    "passed to the writer as the compression block size, and it is\n" +
+                    "still used as the compression block size if that is not set."),
+    COMPRESSION_BLOCK_SIZE("pixels.compression.block.size",
+            "hive.exec.pixels.compression.block.size", 1,
+            "Define the compression block size of the column chunks, in the\n" +
+                    "number of file system blocks."),
+    MEMORY_POOL("pixels.memory.pool", "hive.exec.pixels.memory.pool", 0.5,
+            "Maximum fraction of heap that can be used by Pixels file writers.\n" +
+                    "The stripe size is the memory budget of each writer, it is scaled\n" +
+                    "down when the open writers oversubscribe this pool."),
+    OUTPUT_FILE_SIZE("pixels.output.file.size", "hive.exec.pixels.output.file.size",
+            1024L * 1024 * 1024,
+            "Define the size of the files written by hive, in bytes. The writer\n" +
+                    "rolls over to a new file after the current file reaches this size."),
+    READ_BYTES_VIEW("pixels.read.bytes.view", "hive.exec.pixels.read.bytes.view", false,
+            "Define whether the string and binary values are read as views on the\n" +
+                    "buffers of the column vectors, instead of being copied into writables.\n" +
+                    "The values are only copied if the operators keep or materialize them."),
+    READ_LAZY("pixels.read.lazy", "hive.exec.pixels.read.lazy", false,
+            "Define whether the fields of a row are decoded from the column vectors\n" +
+                    "only when they are accessed by hive, so that the fields of the rows\n" +
+                    "filtered out by the WHERE clause are never materialized."),
+    PROFILE_DIR("pixels.profile.dir", "hive.exec.pixels.profile.dir", "",
+            "Define the directory that the record readers and writers append their\n" +
+                    "performance records to, one record per split or file, in the\n" +
+                    "sub-directory of the query id. Empty disables the records."),
+    ACCESS_PATTERN_SINK("pixels.access.pattern.sink", "hive.exec.pixels.access.pattern.sink", "",
+            "Define where the planner exports the access patterns of the queries,\n" +
+                    "which are used by the layout optimizer. A file:// uri appends to a\n" +
+                    "local file, other uris write files into a directory, e.g., on HDFS,\n" +
+                    "'etcd' puts them into etcd, otherwise it is the class name of a\n" +
+                    "PixelsAccessPatternSink. Empty disables the export."),
+    ACCESS_PATTERN_TTL("pixels.access.pattern.ttl", "hive.exec.pixels.access.pattern.ttl", 86400L,
+            "Define the time to live in seconds of the access patterns put into\n" +
+                    "etcd, the keys are deleted by etcd when their lease expires."),
+    READ_BATCH_MEMORY("pixels.read.batch.memory", "hive.exec.pixels.read.batch.memory",
+            16L * 1024 * 1024,
+            "Define the memory budget of the row batch of each record reader, in\n" +
+                    "bytes. The number of rows in the row batches is computed for each\n" +
+                    "split from the widths of the projected columns. 0 uses the fixed\n" +
+                    "row.batch.size in pixels config."),
+    STRING_WIDTH("pixels.string.width", "hive.exec.pixels.string.width", 64L,
+            "Define the width in bytes assumed for the string and binary values\n" +
+                    "when computing the size of the row batches, it also caps the declared\n" +
+                    "length of char and varchar. The writers use it for all the values, the\n" +
+                    "readers only use it if the file has no statistics of the columns."),
+    BLOOM_FILTER_COLUMNS("pixels.bloom.filter.columns", null, "",
+            "Comma separated names of the columns to build bloom filters for\n" +
+                    "each row group. The bloom filters are used to skip row groups\n" +
+                    "for the equality and IN predicates."),
+    BLOOM_FILTER_FPP("pixels.bloom.filter.fpp", "hive.exec.pixels.bloom.filter.fpp", 0.05,
+            "Define the false positive probability of the bloom filters."),
+    CLUSTER_COLUMNS("pixels.cluster.columns", null, "",
+            "Comma separated names of the columns to cluster the rows by before\n" +
+                    "they are written. Empty means the rows are written in arrival order."),
+    CLUSTER_MODE("pixels.cluster.mode", null, "sort",
+            "Define how the rows are clustered by the cluster columns. 'sort' sorts\n" +
+                    "the rows by the columns in order, 'zorder' sorts the rows by the\n" +
+                    "z-order value of the columns."),
+    CLUSTER_BUFFER_SIZE("pixels.cluster.buffer.size", "hive.exec.pixels.cluster.buffer.size",
+            128L * 1024 * 1024,
+            "Define the size of the rows buffered by each writer for clustering,\n" +
+                    "in bytes. It should be larger than the stripe size, so that each\n" +
+                    "row group is cut from the sorted rows."),
+    CLUSTER_SPILL_SIZE("pixels.cluster.spill.size", "hive.exec.pixels.cluster.spill.size",
+            0L,
+            "Define the maximum size of the sorted runs spilled to the local disk,\n" +
+                    "in bytes. The runs are merged before they are written, so that the\n" +
+                    "rows are clustered across the buffers. 0 disables spilling."),
 
     MAPRED_SHUFFLE_KEY_SCHEMA("pixels.mapred.map.output.key.schema", null, null,
             "The schema of the MapReduce shuffle key. The values are\n" +
@@ -174,16 +248,38 @@ public enum PixelsConf
         return getBoolean(null, conf);
     }
 
+    /**
+     * @return true if the property is set in the table properties or the configuration
+     */
+    public boolean isSet(Properties tbl, Configuration conf)
+    {
+        return lookupValue(tbl, conf) != null;
+    }
+
     public EncodingLevel getEncodingLevel(Properties tbl, Configuration conf)
     {
         String value = lookupValue(tbl, conf);
-        if (value != null)
+        if (value != null && !isAutoEncoding(value))
         {
             return EncodingLevel.from(value);
         }
         return (EncodingLevel) defaultValue;
     }
 
+    /**
+     * @return true if the encoding level is selected automatically
+     */
+    public boolean isAutoEncoding(Properties tbl, Configuration conf)
+    {
+        String value = lookupValue(tbl, conf);
+        return value != null && isAutoEncoding(value);
+    }
+
+    private static boolean isAutoEncoding(String value)
+    {
+        return "auto".equalsIgnoreCase(value.trim());
+    }
+
     public EncodingLevel getEncodingLevel(Configuration conf)
     {
         return getEncodingLevel(null, conf);
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import org.apache.hadoop.mapred.Reporter;
+import org.apache.hadoop.mapreduce.TaskAttemptContext;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The counters of a pixels record reader, they are reported in the hadoop counter
+ * group {@link #GROUP}, so that they can be found in the job history.
+ * <p>
+ * The values are accumulated in the record reader and the increments since the last
+ * report are reported to the task by {@link #report(Reporter)} or
+ * {@link #report(TaskAttemptContext)}. It is not thread safe.
+ * </p>
+ * Created at: 2026-10-18
+ */
+public class PixelsCounters
+{
+    public static final String GROUP = "PIXELS";
+
+    /**
+     * The materialization time is measured on one in SAMPLE_INTERVAL rows and scaled,
+     * to avoid reading the clock for each row.
+     */
+    public static final int SAMPLE_INTERVAL = 64;
+
+    public enum Counter
+    {
+        /**
+         * The bytes read from the storage, i.e., HDFS.
+         */
+        BYTES_READ_HDFS(false),
+        /**
+         * The projected column chunks in the row groups of the splits.
+         */
+        COLUMN_CHUNKS_FETCHED(false),
+        /**
+         * The projected column chunks that are looked up in pixels cache.
+         * The bytes read from pixels cache are not exposed by pixels-core.
+         */
+        COLUMN_CHUNKS_CACHED(false),
+        ROW_GROUPS_SCANNED(false),
+        /**
+         * The row groups skipped by the bloom filters when planning the splits.
+         */
+        ROW_GROUPS_SKIPPED(false),
+        ROWS_READ(false),
+        FOOTER_CACHE_HITS(false),
+        FOOTER_CACHE_MISSES(false),
+        /**
+         * The time spent in reading from the storage.
+         */
+        IO_MILLIS(true),
+        /**
+         * The time spent in reading row batches that is not I/O, i.e., decoding.
+         */
+        DECODE_MILLIS(true),
+        /**
+         * The time spent in setting the values of the row batches into the rows of hive.
+         * It is estimated by sampling, and does not include the lazy fields that are
+         * decoded when they are accessed.
+         */
+        MATERIALIZATION_MILLIS(true);
+
+        private final boolean nanos;
+
+        Counter(boolean nanos)
+        {
+            this.nanos = nanos;
+        }
+    }
+
+    private static final Counter[] COUNTERS = Counter.values();
+
+    /**
+     * The values in nanoseconds for the time counters.
+     */
+    private final long[] values = new long[COUNTERS.length];
+    /**
+     * The values that have been reported, in the unit of the counters.
+     */
+    private final long[] reported = new long[COUNTERS.length];
+
+    public void increment(Counter counter, long amount)
+    {
+        values[counter.ordinal()] += amount;
+    }
+
+    /**
+     * Set the value of the counter whose source is already accumulated, e.g., the
+     * completed bytes of the pixels record reader.
+     */
+    public void set(Counter counter, long value)
+    {
+        values[counter.ordinal()] = value;
+    }
+
+    /**
+     * @return the value of the counter in its unit
+     */
+    public long get(Counter counter)
+    {
+        long value = values[counter.ordinal()];
+        return counter.nanos ? value / 1000000 : value;
+    }
+
+    /**
+     * @return true if the materialization of the row should be timed
+     */
+    public static boolean isSampled(int rowId)
+    {
+        return rowId % SAMPLE_INTERVAL == 0;
+    }
+
+    /**
+     * Add the row groups, column chunks and footer cache accesses of the split.
+     *
+     * @param options the reader options of the split
+     * @param numColumns the number of columns in the file
+     */
+    public void addSplit(PixelsRW.ReaderOptions options, int numColumns)
+    {
+        PixelsSplit split = options.getSplit();
+        int rgStart = split.getRgStart();
+        int rgLen = split.getRgLen();
+        int[] pixelsIncluded = options.getPixelsIncluded();
+        int numProjected = options.isReadAllColumns() ? numColumns : pixelsIncluded.length;
+        increment(Counter.ROW_GROUPS_SCANNED, rgLen);
+        increment(Counter.ROW_GROUPS_SKIPPED, split.getRgSkipped());
+        increment(Counter.COLUMN_CHUNKS_FETCHED, (long) rgLen * numProjected);
+        increment(options.isFooterCached() ? Counter.FOOTER_CACHE_HITS : Counter.FOOTER_CACHE_MISSES, 1);
+        if (options.isCacheEnabled())
+        {
+            Set<Integer> projected = new HashSet<>();
+            for (int column : pixelsIncluded)
+            {
+                projected.add(column);
+            }
+            long cached = 0;
+            List<String> cacheOrder = options.getCacheOrder();
+            // the column chunk in the cache order is rowGroupId:columnId.
+            for (String columnChunk : cacheOrder)
+            {
+                int colon = columnChunk.indexOf(':');
+                int rgId = Integer.parseInt(columnChunk.substring(0, colon));
+                int columnId = Integer.parseInt(columnChunk.substring(colon + 1));
+                if (rgId >= rgStart && rgId < rgStart + rgLen &&
+                        (options.isReadAllColumns() || projected.contains(columnId)))
+                {
+                    cached++;
+                }
+            }
+            increment(Counter.COLUMN_CHUNKS_CACHED, cached);
+        }
+    }
+
+    /**
+     * Report the increments of the counters since the last report to the old mapred API.
+     */
+    public void report(Reporter reporter)
+    {
+        if (reporter == null)
+        {
+            return;
+        }
+        for (Counter counter : COUNTERS)
+        {
+            long delta = delta(counter);
+            if (delta != 0)
+            {
+                reporter.incrCounter(GROUP, counter.name(), delta);
+            }
+        }
+    }
+
+    /**
+     * Report the increments of the counters since the last report to the new mapreduce API.
+     */
+    public void report(TaskAttemptContext context)
+    {
+        if (context == null)
+        {
+            return;
+        }
+        for (Counter counter : COUNTERS)
+        {
+            long delta = delta(counter);
+            if (delta != 0)
+            {
+                context.getCounter(GROUP, counter.name()).increment(delta);
+            }
+        }
+    }
+
+    private long delta(Counter counter)
+    {
+        long value = get(counter);
+        long delta = value - reported[counter.ordinal()];
+        reported[counter.ordinal()] = value;
+        return delta;
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.encoding.EncodingLevel;
+import io.pixelsdb.pixels.core.vector.BinaryColumnVector;
+import io.pixelsdb.pixels.core.vector.ColumnVector;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Selects the encoding level of a pixels file from a sample of its rows.
+ * <p>
+ * The pixels writer applies one encoding level to all the columns in a file:
+ * EL0 writes the plain values, EL1 enables run-length encoding of the integer
+ * columns, and EL2 enables dictionary encoding of the string columns in addition.
+ * The selector estimates the bytes saved by run-length encoding and by dictionary
+ * encoding on the sampled rows, and enables an encoding only if it saves at least
+ * the min gain of the sampled bytes, as the encoded values are slower to decode.
+ * </p>
+ * The encoding of a column can be overridden by the table property
+ * pixels.column.&lt;name&gt;.encoding = plain | rle | dictionary. As the encoding
+ * level is file-wide, the overridden column is excluded from the estimation and
+ * the file gets at least the level that is required by rle or dictionary, and at
+ * most the level that keeps the column plain: EL0 for an integer column, EL1 for
+ * a string column. The overrides that require and forbid the same level are rejected.
+ *
+ * Created at: 2026-10-18
+ */
+public class PixelsEncodingSelector
+{
+    private static Logger log = LogManager.getLogger(PixelsEncodingSelector.class);
+
+    public static final String COLUMN_PREFIX = "pixels.column.";
+    public static final String ENCODING_SUFFIX = ".encoding";
+
+    /**
+     * The estimated size of a run in the run-length encoded integers.
+     */
+    private static final int RUN_WIDTH = 3;
+    /**
+     * The estimated size of a dictionary id.
+     */
+    private static final int DICTIONARY_ID_WIDTH = 2;
+
+    private PixelsEncodingSelector()
+    {
+    }
+
+    /**
+     * Get the per-column encoding overrides from the table properties.
+     *
+     * @param tableProperties the table properties, may be null
+     * @return the map from the lower case column name to the encoding
+     */
+    public static Map<String, String> getColumnEncodings(Properties tableProperties)
+    {
+        Map<String, String> columnEncodings = new HashMap<>();
+        if (tableProperties == null)
+        {
+            return columnEncodings;
+        }
+        for (String key : tableProperties.stringPropertyNames())
+        {
+            if (key.startsWith(COLUMN_PREFIX) && key.endsWith(ENCODING_SUFFIX))
+            {
+                String column = key.substring(COLUMN_PREFIX.length(),
+                        key.length() - ENCODING_SUFFIX.length()).toLowerCase();
+                String encoding = tableProperties.getProperty(key).trim().toLowerCase();
+                switch (encoding)
+                {
+                    case "plain":
+                    case "rle":
+                    case "dictionary":
+                        columnEncodings.put(column, encoding);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(key + "=" + encoding + " is illegal.");
+                }
+            }
+        }
+        return columnEncodings;
+    }
+
+    /**
+     * Select the encoding level of a file.
+     *
+     * @param schema the schema of the file
+     * @param sample the first row batch to be written into the file
+     * @param columnEncodings the per-column encoding overrides
+     * @param minGain the minimum fraction of the sampled bytes that an encoding should save
+     * @return the encoding level
+     */
+    public static EncodingLevel select(TypeDescription schema, VectorizedRowBatch sample,
+                                       Map<String, String> columnEncodings, double minGain)
+    {
+        List<String> fieldNames = schema.getFieldNames();
+        List<TypeDescription> children = schema.getChildren();
+        int requiredLevel = 0, maxLevel = 2;
+        String requiredBy = null, cappedBy = null;
+        long plainBytes = 0, rleGain = 0, dictionaryGain = 0;
+        for (int i = 0; i < children.size(); ++i)
+        {
+            String encoding = columnEncodings.get(fieldNames.get(i).toLowerCase());
+            if (encoding != null)
+            {
+                if (encoding.equals("plain"))
+                {
+                    int level = getPlainLevel(children.get(i));
+                    if (level < maxLevel)
+                    {
+                        maxLevel = level;
+                        cappedBy = fieldNames.get(i);
+                    }
+                } else
+                {
+                    int level = encoding.equals("dictionary") ? 2 : 1;
+                    if (level > requiredLevel)
+                    {
+                        requiredLevel = level;
+                        requiredBy = fieldNames.get(i);
+                    }
+                }
+                continue;
+            }
+            ColumnVector vector = sample.cols[i];
+            switch (children.get(i).getCategory())
+            {
+                case BYTE:
+                case SHORT:
+                case INT:
+                case LONG:
+                case DATE:
+                {
+                    long[] values = ((LongColumnVector) vector).vector;
+                    int size = vector.isRepeating() ? 1 : sample.size;
+                    int runs = size == 0 ? 0 : 1;
+                    long bytes = 0;
+                    for (int row = 0; row < size; ++row)
+                    {
+                        bytes += varIntWidth(values[row]);
+                        if (row > 0 && values[row] != values[row - 1])
+                        {
+                            runs++;
+                        }
+                    }
+                    long plain = (long) sample.size * Long.BYTES;
+                    long encoded = vector.isRepeating() ? RUN_WIDTH :
+                            Math.min(bytes, (long) runs * (RUN_WIDTH + Long.BYTES));
+                    plainBytes += plain;
+                    rleGain += plain - encoded;
+                    break;
+                }
+                case STRING:
+                case VARCHAR:
+                case CHAR:
+                {
+                    BinaryColumnVector binary = (BinaryColumnVector) vector;
+                    int size = vector.isRepeating() ? 1 : sample.size;
+                    Set<ByteBuffer> distinct = new HashSet<>();
+                    long bytes = 0, distinctBytes = 0;
+                    for (int row = 0; row < size; ++row)
+                    {
+                        if (!vector.noNulls && vector.isNull[row])
+                        {
+                            continue;
+                        }
+                        bytes += binary.lens[row];
+                        if (distinct.add(ByteBuffer.wrap(binary.vector[row], binary.start[row], binary.lens[row])))
+                        {
+                            distinctBytes += binary.lens[row];
+                        }
+                    }
+                    if (vector.isRepeating())
+                    {
+                        bytes *= sample.size;
+                    }
+                    long encoded = distinctBytes + (long) sample.size * DICTIONARY_ID_WIDTH;
+                    plainBytes += bytes;
+                    dictionaryGain += Math.max(0, bytes - encoded);
+                    break;
+                }
+                default:
+                    // the other types are not affected by the encoding level, or not written by hive.
+                    break;
+            }
+        }
+        if (requiredLevel > maxLevel)
+        {
+            throw new IllegalArgumentException("the encoding of column '" + requiredBy +
+                    "' requires encoding level " + requiredLevel + ", but the plain encoding of column '" +
+                    cappedBy + "' requires encoding level " + maxLevel + " or lower.");
+        }
+
+        int level = requiredLevel;
+        if (plainBytes > 0)
+        {
+            if (level < 1 && maxLevel >= 1 && rleGain >= plainBytes * minGain)
+            {
+                level = 1;
+            }
+            if (level < 2 && maxLevel >= 2 && dictionaryGain >= plainBytes * minGain)
+            {
+                level = 2;
+            }
+        }
+        log.debug("select encoding level " + level + " by sampling " + sample.size + " rows, plain bytes: " +
+                plainBytes + ", rle gain: " + rleGain + ", dictionary gain: " + dictionaryGain);
+        return EncodingLevel.from(level);
+    }
+
+    /**
+     * @return the highest encoding level that writes the plain values of the column
+     */
+    private static int getPlainLevel(TypeDescription type)
+    {
+        switch (type.getCategory())
+        {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case DATE:
+                // run-length encoding is enabled from EL1.
+                return 0;
+            case STRING:
+            case VARCHAR:
+            case CHAR:
+                // dictionary encoding is enabled from EL2.
+                return 1;
+            default:
+                return 2;
+        }
+    }
+
+    private static int varIntWidth(long value)
+    {
+        // zigzag encoding, 7 bits in each byte.
+        long zigzag = (value << 1) ^ (value >> 63);
+        int width = 1;
+        while ((zigzag >>>= 7) != 0)
+        {
+            width++;
+        }
+        return width;
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The facade of the events for java flight recorder.
+ * <p>
+ * The events are implemented on jdk.jfr in src/main/jfr, which is only compiled on JDK 11
+ * or later by the jfr profile. If the implementation or jdk.jfr is not available at runtime,
+ * the events are no-ops. The implementation also returns the no-op event if the event type
+ * is not enabled in any recording, so the events cost little when they are not recorded.
+ * The setters should be called only if {@link Event#isEnabled()} returns true.
+ * </p>
+ * Created at: 2026-10-18
+ */
+public final class PixelsEvents
+{
+    private static Logger log = LogManager.getLogger(PixelsEvents.class);
+
+    private static final String FACTORY_CLASS = "io.pixelsdb.pixels.hive.jfr.JfrEventFactory";
+
+    public interface Event
+    {
+        boolean isEnabled();
+
+        void commit();
+    }
+
+    /**
+     * The planning of the splits in getSplits.
+     */
+    public interface SplitPlanning extends Event
+    {
+        void setTable(String table);
+
+        void setNumLayouts(int numLayouts);
+
+        void setNumSplits(int numSplits);
+
+        /**
+         * Add the time spent in getting the layouts and files from pixels metadata.
+         */
+        void addMetadataNanos(long nanos);
+
+        /**
+         * Add the time spent in getting the cached table and files from etcd.
+         */
+        void addCacheRegistryNanos(long nanos);
+
+        void addBlockLocationNanos(long nanos);
+
+        /**
+         * Add the time spent in building and searching the splits and projections indexes.
+         */
+        void addIndexSearchNanos(long nanos);
+    }
+
+    /**
+     * The fetch of the footer when a file reader is created.
+     */
+    public interface FooterRead extends Event
+    {
+        void setPath(String path);
+
+        void setCached(boolean cached);
+    }
+
+    /**
+     * The read of a row batch by the record reader.
+     */
+    public interface BatchRead extends Event
+    {
+        void setPath(String path);
+
+        void setRows(int rows);
+
+        void setBytes(long bytes);
+
+        void setColumns(int columns);
+    }
+
+    /**
+     * The flush of the buffered rows into the pixels writer.
+     */
+    public interface WriterFlush extends Event
+    {
+        void setPath(String path);
+
+        void setRows(int rows);
+
+        void setBytes(long bytes);
+
+        void setRowGroupFlushed(boolean rowGroupFlushed);
+    }
+
+    /**
+     * Creates the events, the returned events have begun.
+     */
+    public interface Factory
+    {
+        SplitPlanning beginSplitPlanning();
+
+        FooterRead beginFooterRead();
+
+        BatchRead beginBatchRead();
+
+        WriterFlush beginWriterFlush();
+    }
+
+    /**
+     * The event that is never enabled, and the factory of it.
+     */
+    public static final class Noop implements SplitPlanning, FooterRead, BatchRead, WriterFlush, Factory
+    {
+        private Noop()
+        {
+        }
+
+        @Override
+        public boolean isEnabled()
+        {
+            return false;
+        }
+
+        @Override
+        public void commit()
+        {
+        }
+
+        @Override
+        public void setTable(String table)
+        {
+        }
+
+        @Override
+        public void setNumLayouts(int numLayouts)
+        {
+        }
+
+        @Override
+        public void setNumSplits(int numSplits)
+        {
+        }
+
+        @Override
+        public void addMetadataNanos(long nanos)
+        {
+        }
+
+        @Override
+        public void addCacheRegistryNanos(long nanos)
+        {
+        }
+
+        @Override
+        public void addBlockLocationNanos(long nanos)
+        {
+        }
+
+        @Override
+        public void addIndexSearchNanos(long nanos)
+        {
+        }
+
+        @Override
+        public void setPath(String path)
+        {
+        }
+
+        @Override
+        public void setCached(boolean cached)
+        {
+        }
+
+        @Override
+        public void setRows(int rows)
+        {
+        }
+
+        @Override
+        public void setBytes(long bytes)
+        {
+        }
+
+        @Override
+        public void setColumns(int columns)
+        {
+        }
+
+        @Override
+        public void setRowGroupFlushed(boolean rowGroupFlushed)
+        {
+        }
+
+        @Override
+        public SplitPlanning beginSplitPlanning()
+        {
+            return this;
+        }
+
+        @Override
+        public FooterRead beginFooterRead()
+        {
+            return this;
+        }
+
+        @Override
+        public BatchRead beginBatchRead()
+        {
+            return this;
+        }
+
+        @Override
+        public WriterFlush beginWriterFlush()
+        {
+            return this;
+        }
+    }
+
+    public static final Noop NOOP = new Noop();
+
+    private static final Factory factory = createFactory();
+
+    private PixelsEvents()
+    {
+    }
+
+    private static Factory createFactory()
+    {
+        try
+        {
+            return (Factory) Class.forName(FACTORY_CLASS).getDeclaredConstructor().newInstance();
+        } catch (Throwable e)
+        {
+            // not compiled with the jfr profile, or jdk.jfr is not found.
+            log.debug("java flight recorder events are disabled: " + e);
+            return NOOP;
+        }
+    }
+
+    public static SplitPlanning beginSplitPlanning()
+    {
+        return factory.beginSplitPlanning();
+    }
+
+    public static FooterRead beginFooterRead()
+    {
+        return factory.beginFooterRead();
+    }
+
+    public static BatchRead beginBatchRead()
+    {
+        return factory.beginBatchRead();
+    }
+
+    public static WriterFlush beginWriterFlush()
+    {
+        return factory.beginWriterFlush();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import io.pixelsdb.pixels.daemon.MetadataProto;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A manifest lists the pixels files written by a writer task, which are
+ * not registered in pixels metadata yet. The header of the manifest carries
+ * the id of the query, so that the manifests written by the concurrent queries
+ * on the same table are not committed by each other.
+ * <p>
+ * The pixels files are written into the ordered path of the table layout,
+ * while the manifest is written to the output path that is given by hive.
+ * Hence the manifests go through the commit protocol of hive (i.e., the outputs
+ * of failed or duplicate task attempts are removed), and the files listed in
+ * the committed manifests are registered at job commit.
+ * </p>
+ * The manifests are named by hive after the task, e.g., 000000_0, or 000000_0_copy_1 if
+ * the name is taken in the table location. Only the files matching {@link #NAME_PATTERN}
+ * are read as manifests, so that the other files in the table location are not opened.
+ * Created at: 2026-10-18
+ */
+public class PixelsManifest
+{
+    private static final String HEADER = "#pixels-manifest";
+    /**
+     * The names of the task output files of hive, with the prefix of the temporary files.
+     */
+    private static final Pattern NAME_PATTERN = Pattern.compile("(_tmp\\.)?[0-9]+_[0-9]+(_copy_[0-9]+)?");
+
+    private PixelsManifest()
+    {
+    }
+
+    /**
+     * @param name the name of the file
+     * @return true if the file may be a manifest
+     */
+    public static boolean isManifestName(String name)
+    {
+        return NAME_PATTERN.matcher(name).matches();
+    }
+
+    /**
+     * Write the manifest.
+     *
+     * @param fs the file system of the manifest
+     * @param path the path of the manifest
+     * @param queryId the id of the query that writes the files
+     * @param files the files written by the task
+     * @throws IOException
+     */
+    public static void write(FileSystem fs, Path path, String queryId,
+                             List<MetadataProto.File> files) throws IOException
+    {
+        try (BufferedWriter writer = HDFSLog.getLogWriter(fs, path.toString()))
+        {
+            writer.write(HEADER + "\t" + queryId);
+            writer.newLine();
+            for (MetadataProto.File file : files)
+            {
+                writer.write(file.getPathId() + "\t" + file.getName() + "\t" + file.getNumRowGroup());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Read the files listed in a manifest.
+     *
+     * @param fs the file system of the manifest
+     * @param path the path of the manifest
+     * @param queryId the id of the query to commit
+     * @return the files, or null if the path is not a manifest of the query
+     * @throws IOException
+     */
+    public static List<MetadataProto.File> read(FileSystem fs, Path path, String queryId) throws IOException
+    {
+        try (FSDataInputStream input = fs.open(path);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)))
+        {
+            String line = reader.readLine();
+            if (!(HEADER + "\t" + queryId).equals(line))
+            {
+                return null;
+            }
+            List<MetadataProto.File> files = new ArrayList<>();
+            while ((line = reader.readLine()) != null)
+            {
+                if (line.isEmpty())
+                {
+                    continue;
+                }
+                String[] tokens = line.split("\t");
+                if (tokens.length != 3)
+                {
+                    throw new IOException("illegal line '" + line + "' in manifest " + path);
+                }
+                files.add(MetadataProto.File.newBuilder()
+                        .setPathId(Long.parseLong(tokens[0]))
+                        .setName(tokens[1])
+                        .setNumRowGroup(Integer.parseInt(tokens[2])).build());
+            }
+            return files;
+        }
+    }
+}
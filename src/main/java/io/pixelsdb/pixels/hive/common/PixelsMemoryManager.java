@@ -0,0 +1,188 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Implements a memory manager that keeps a global context of how many PIXELS
+ * writers there are and manages the memory between them. For use cases with
+ * dynamic partitions, it is easy to end up with many writers in the same task.
+ * By managing the size of each allocation, we try to cut down the size of each
+ * allocation and keep the task from running out of memory.
+ * <p>
+ * There is one memory manager per JVM, it is shared by all the writers
+ * opened in the JVM, so that its methods are synchronized. The tasks of
+ * Hive on Spark and LLAP share the JVM, while a writer is not thread-safe,
+ * so the memory manager never calls back into the writers. It only publishes
+ * the scale of the allocations, and each writer compares the scale with the
+ * one it has applied and shrinks or flushes its buffers on its own thread.
+ * </p>
+ * refers to {@link org.apache.orc.impl.MemoryManagerImpl}
+ *
+ * <p>
+ * Created at: 2026-10-18
+ * </p>
+ */
+public class PixelsMemoryManager
+{
+    private static Logger log = LogManager.getLogger(PixelsMemoryManager.class);
+
+    private static PixelsMemoryManager instance = null;
+
+    private final long totalMemoryPool;
+    private final Map<Path, WriterInfo> writerList = new HashMap<>();
+    private long totalAllocation = 0;
+    /**
+     * It is read by the writers without locking the memory manager.
+     */
+    private volatile double currentScale = 1;
+
+    private static class WriterInfo
+    {
+        long allocation;
+
+        WriterInfo(long allocation)
+        {
+            this.allocation = allocation;
+        }
+    }
+
+    /**
+     * Create the memory manager.
+     *
+     * @param conf use the configuration to find the maximum size of the memory pool.
+     */
+    PixelsMemoryManager(Configuration conf)
+    {
+        double maxLoad = PixelsConf.MEMORY_POOL.getDouble(conf);
+        totalMemoryPool = Math.round(ManagementFactory.getMemoryMXBean().
+                getHeapMemoryUsage().getMax() * maxLoad);
+    }
+
+    /**
+     * Get the memory manager that is shared by all the PIXELS writers in this JVM.
+     * The memory pool is fixed by the configuration that is passed in the first call.
+     *
+     * @param conf the configuration of the first writer
+     * @return the memory manager
+     */
+    public static synchronized PixelsMemoryManager getInstance(Configuration conf)
+    {
+        if (instance == null)
+        {
+            instance = new PixelsMemoryManager(conf);
+        }
+        return instance;
+    }
+
+    /**
+     * Add a new writer's memory allocation to the pool. We use the path
+     * as a unique key to ensure that we don't get duplicates.
+     *
+     * @param path                the file that is being written
+     * @param requestedAllocation the requested buffer size
+     */
+    public synchronized void addWriter(Path path, long requestedAllocation)
+    {
+        WriterInfo oldVal = writerList.get(path);
+        // this should always be null, but we handle the case where the memory
+        // manager wasn't told that a writer wasn't still in use and the task
+        // starts writing to the same path.
+        if (oldVal == null)
+        {
+            oldVal = new WriterInfo(requestedAllocation);
+            writerList.put(path, oldVal);
+            totalAllocation += requestedAllocation;
+        } else
+        {
+            // handle a new writer that is writing to the same path
+            totalAllocation += requestedAllocation - oldVal.allocation;
+            oldVal.allocation = requestedAllocation;
+        }
+        updateScale(true);
+    }
+
+    /**
+     * Remove the given writer from the pool.
+     *
+     * @param path the file that has been closed
+     */
+    public synchronized void removeWriter(Path path)
+    {
+        WriterInfo val = writerList.get(path);
+        if (val != null)
+        {
+            writerList.remove(path);
+            totalAllocation -= val.allocation;
+            updateScale(false);
+        }
+    }
+
+    /**
+     * Get the total pool size that is available for PIXELS writers.
+     *
+     * @return the number of bytes in the pool
+     */
+    public long getTotalMemoryPool()
+    {
+        return totalMemoryPool;
+    }
+
+    /**
+     * The scaling factor for each allocation to ensure that the pool isn't
+     * oversubscribed. It is cheap enough to be checked by the writers for each row.
+     *
+     * @return a fraction between 0.0 and 1.0 of the requested size that is
+     * available for each writer.
+     */
+    public double getAllocationScale()
+    {
+        return currentScale;
+    }
+
+    /**
+     * Update the currentScale based on the current allocation and pool size.
+     *
+     * @param isAllocate is this an allocation?
+     */
+    private void updateScale(boolean isAllocate)
+    {
+        if (totalAllocation <= totalMemoryPool)
+        {
+            currentScale = 1;
+        } else
+        {
+            currentScale = (double) totalMemoryPool / totalAllocation;
+        }
+        if (isAllocate && log.isDebugEnabled())
+        {
+            log.debug("writers: " + writerList.size() + ", allocation: " +
+                    totalAllocation + ", pool: " + totalMemoryPool + ", scale: " + currentScale);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import io.pixelsdb.pixels.common.metadata.SchemaTableName;
+import io.pixelsdb.pixels.common.metadata.domain.Layout;
+import io.pixelsdb.pixels.common.utils.ConfigFactory;
+import io.pixelsdb.pixels.common.utils.MetaDBUtil;
+import io.pixelsdb.pixels.daemon.MetadataProto;
+import io.pixelsdb.pixels.daemon.metadata.dao.*;
+import org.apache.hadoop.conf.Configuration;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The accesses to pixels metadata that are shared by the input and output formats.
+ * <p>
+ * Hive depends on guava-14.0.1, which is not compatible with guava-21.0 used by grpc.
+ * So we have to use daos instead of grpc.
+ * </p>
+ * Created at: 2026-10-18
+ */
+public class PixelsMetadata
+{
+    public static final String BIND_PIXELS_TABLE = "bind.pixels.table";
+
+    private PixelsMetadata()
+    {
+    }
+
+    /**
+     * Get the pixels table that is bound to the hive table.
+     *
+     * @param tbl  the table properties, may be null
+     * @param conf the configuration of the job
+     * @return the schema and table name of the pixels table
+     * @throws IOException if the bind.pixels.table property is not found or illegal
+     */
+    public static SchemaTableName getBindTable(Properties tbl, Configuration conf) throws IOException
+    {
+        String bindTable = null;
+        if (tbl != null)
+        {
+            bindTable = tbl.getProperty(BIND_PIXELS_TABLE);
+        }
+        if (bindTable == null)
+        {
+            bindTable = conf.get(BIND_PIXELS_TABLE);
+        }
+        if (bindTable == null)
+        {
+            throw new IOException(BIND_PIXELS_TABLE + " property is not found.");
+        }
+        String[] tokens = bindTable.split("\\.");
+        if (tokens.length != 2)
+        {
+            throw new IOException(BIND_PIXELS_TABLE + "=" + bindTable + " is illegal.");
+        }
+        return new SchemaTableName(tokens[0], tokens[1]);
+    }
+
+    /**
+     * Get the latest writable layout of the table.
+     *
+     * @param st the schema and table name
+     * @return the layout with the highest version among the writable layouts
+     * @throws IOException if the table does not have any writable layout
+     */
+    public static Layout getWritableLayout(SchemaTableName st) throws IOException
+    {
+        SchemaDao schemaDao = DaoFactory.Instance().getSchemaDao();
+        TableDao tableDao = DaoFactory.Instance().getTableDao();
+        LayoutDao layoutDao = DaoFactory.Instance().getLayoutDao();
+        MetadataProto.Schema schema = schemaDao.getByName(st.getSchemaName());
+        MetadataProto.Table table = tableDao.getByNameAndSchema(st.getTableName(), schema);
+        List<MetadataProto.Layout> layouts = layoutDao.getByTable(table, -1,
+                MetadataProto.GetLayoutRequest.PermissionRange.READ_WRITE); // version < 0 means get all versions
+        MetadataProto.Layout latest = null;
+        for (MetadataProto.Layout layout : layouts)
+        {
+            if (latest == null || layout.getVersion() > latest.getVersion())
+            {
+                latest = layout;
+            }
+        }
+        if (latest == null)
+        {
+            throw new IOException("no writable layout is found for table " + st);
+        }
+        return new Layout(latest);
+    }
+
+    /**
+     * Get the directories of all the readable layouts of the table, i.e., the ordered,
+     * compact and projection paths, which hold all the files visible to the readers.
+     *
+     * @param st the schema and table name
+     * @return the directories without duplicates
+     */
+    public static List<io.pixelsdb.pixels.common.metadata.domain.Path> getReadablePaths(SchemaTableName st)
+    {
+        SchemaDao schemaDao = DaoFactory.Instance().getSchemaDao();
+        TableDao tableDao = DaoFactory.Instance().getTableDao();
+        LayoutDao layoutDao = DaoFactory.Instance().getLayoutDao();
+        MetadataProto.Schema schema = schemaDao.getByName(st.getSchemaName());
+        MetadataProto.Table table = tableDao.getByNameAndSchema(st.getTableName(), schema);
+        List<MetadataProto.Layout> layouts = layoutDao.getByTable(table, -1,
+                MetadataProto.GetLayoutRequest.PermissionRange.READABLE); // version < 0 means get all versions
+        Map<Long, io.pixelsdb.pixels.common.metadata.domain.Path> dirPaths = new LinkedHashMap<>();
+        for (MetadataProto.Layout layoutProto : layouts)
+        {
+            Layout layout = new Layout(layoutProto);
+            List<io.pixelsdb.pixels.common.metadata.domain.Path> paths = new ArrayList<>(layout.getOrderedPaths());
+            paths.addAll(layout.getCompactPaths());
+            if (layout.getProjectionPaths() != null)
+            {
+                paths.addAll(layout.getProjectionPaths().values());
+            }
+            for (io.pixelsdb.pixels.common.metadata.domain.Path path : paths)
+            {
+                dirPaths.putIfAbsent(path.getId(), path);
+            }
+        }
+        return new ArrayList<>(dirPaths.values());
+    }
+
+    /**
+     * Register the files in pixels metadata in one batch, so that they become
+     * visible to the readers at the same time.
+     *
+     * @param files the files to register
+     * @throws IOException if the files failed to be registered
+     */
+    public static void registerFiles(List<MetadataProto.File> files) throws IOException
+    {
+        replaceFiles(files, Collections.emptyList());
+    }
+
+    /**
+     * Get the files in the directories.
+     *
+     * @param dirPaths the directories
+     * @return the files in the order of the directories
+     */
+    public static List<MetadataProto.File> getFiles(List<io.pixelsdb.pixels.common.metadata.domain.Path> dirPaths)
+    {
+        FileDao fileDao = DaoFactory.Instance().getFileDao();
+        List<MetadataProto.File> files = new ArrayList<>();
+        for (io.pixelsdb.pixels.common.metadata.domain.Path dirPath : dirPaths)
+        {
+            files.addAll(fileDao.getAllByPathId(dirPath.getId()));
+        }
+        return files;
+    }
+
+    /**
+     * Register the new files and remove the old files from pixels metadata in one
+     * transaction, so that the readers see either the old files or the new files.
+     * <p>
+     * The daos share one connection of {@link MetaDBUtil} in the JVM, e.g., with the
+     * other queries in HiveServer2, and commit each statement on it. Hence the transaction
+     * runs on a dedicated connection with the same statements as the file dao, and the
+     * connection is closed when the transaction is finished.
+     * </p>
+     *
+     * @param newFiles the files to register
+     * @param oldFileIds the ids of the files to remove
+     * @throws IOException if the transaction failed, nothing is changed in this case
+     */
+    public static void replaceFiles(List<MetadataProto.File> newFiles, List<Long> oldFileIds) throws IOException
+    {
+        if (newFiles.isEmpty() && oldFileIds.isEmpty())
+        {
+            return;
+        }
+        try (Connection conn = openConnection())
+        {
+            conn.setAutoCommit(false);
+            try
+            {
+                if (!newFiles.isEmpty())
+                {
+                    try (PreparedStatement pst = conn.prepareStatement(
+                            "INSERT INTO FILES(FILE_NAME, FILE_NUM_RG, PATHS_PATH_ID) VALUES (?,?,?)"))
+                    {
+                        for (MetadataProto.File file : newFiles)
+                        {
+                            pst.setString(1, file.getName());
+                            pst.setInt(2, file.getNumRowGroup());
+                            pst.setLong(3, file.getPathId());
+                            pst.addBatch();
+                        }
+                        pst.executeBatch();
+                    }
+                }
+                if (!oldFileIds.isEmpty())
+                {
+                    StringBuilder sql = new StringBuilder("DELETE FROM FILES WHERE FILE_ID IN (");
+                    for (int i = 0; i < oldFileIds.size(); ++i)
+                    {
+                        sql.append(i == 0 ? "?" : ",?");
+                    }
+                    sql.append(')');
+                    try (PreparedStatement pst = conn.prepareStatement(sql.toString()))
+                    {
+                        for (int i = 0; i < oldFileIds.size(); ++i)
+                        {
+                            pst.setLong(i + 1, oldFileIds.get(i));
+                        }
+                        pst.executeUpdate();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e)
+            {
+                try
+                {
+                    conn.rollback();
+                } catch (SQLException e1)
+                {
+                    e.addSuppressed(e1);
+                }
+                throw e;
+            }
+        } catch (SQLException e)
+        {
+            throw new IOException("failed to register " + newFiles.size() + " files and remove " +
+                    oldFileIds.size() + " files in pixels metadata", e);
+        }
+    }
+
+    /**
+     * Open a connection to the metadata database that is not shared with the daos.
+     * It uses the same settings in pixels config as {@link MetaDBUtil}.
+     */
+    private static Connection openConnection() throws SQLException
+    {
+        ConfigFactory config = ConfigFactory.Instance();
+        try
+        {
+            Class.forName(config.getProperty("metadata.db.driver"));
+        } catch (ClassNotFoundException e)
+        {
+            throw new SQLException("failed to load the driver of the metadata database", e);
+        }
+        return DriverManager.getConnection(config.getProperty("metadata.db.url"),
+                config.getProperty("metadata.db.user"), config.getProperty("metadata.db.password"));
+    }
+}
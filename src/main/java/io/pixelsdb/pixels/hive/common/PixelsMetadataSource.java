@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import io.pixelsdb.pixels.common.metadata.SchemaTableName;
+import io.pixelsdb.pixels.common.metadata.domain.Layout;
+import io.pixelsdb.pixels.daemon.MetadataProto;
+import io.pixelsdb.pixels.daemon.metadata.dao.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The layouts and files of pixels tables that are used to plan the splits.
+ * The default implementation reads them from the metadata database, the in-memory
+ * implementation is used to plan the splits without the metadata database, e.g., in
+ * the split-planning benchmark.
+ *
+ * Created at: 2026-10-18
+ */
+public interface PixelsMetadataSource
+{
+    /**
+     * @param st the schema and table name
+     * @return the readable layouts of all the versions of the table
+     */
+    List<Layout> getLayouts(SchemaTableName st);
+
+    /**
+     * @param dirPath the directory
+     * @return the files in the directory
+     */
+    List<MetadataProto.File> getFiles(io.pixelsdb.pixels.common.metadata.domain.Path dirPath);
+
+    /**
+     * Reads the layouts and files by the daos, see {@link PixelsMetadata} for why grpc is not used.
+     */
+    class Dao implements PixelsMetadataSource
+    {
+        @Override
+        public List<Layout> getLayouts(SchemaTableName st)
+        {
+            SchemaDao schemaDao = DaoFactory.Instance().getSchemaDao();
+            TableDao tableDao = DaoFactory.Instance().getTableDao();
+            LayoutDao layoutDao = DaoFactory.Instance().getLayoutDao();
+            MetadataProto.Schema schema = schemaDao.getByName(st.getSchemaName());
+            MetadataProto.Table table = tableDao.getByNameAndSchema(st.getTableName(), schema);
+            List<MetadataProto.Layout> layouts = layoutDao.getByTable(table, -1,
+                    MetadataProto.GetLayoutRequest.PermissionRange.READABLE); // version < 0 means get all versions
+            List<Layout> res = new ArrayList<>();
+            layouts.forEach(layout -> res.add(new Layout(layout)));
+            return res;
+        }
+
+        @Override
+        public List<MetadataProto.File> getFiles(io.pixelsdb.pixels.common.metadata.domain.Path dirPath)
+        {
+            return DaoFactory.Instance().getFileDao().getAllByPathId(dirPath.getId());
+        }
+    }
+
+    /**
+     * Holds the layouts and files in memory. It is not thread safe for updates.
+     */
+    class InMemory implements PixelsMetadataSource
+    {
+        private final Map<SchemaTableName, List<Layout>> layouts = new HashMap<>();
+        private final Map<Long, List<MetadataProto.File>> files = new HashMap<>();
+
+        public InMemory addLayout(SchemaTableName st, Layout layout)
+        {
+            layouts.computeIfAbsent(st, k -> new ArrayList<>()).add(layout);
+            return this;
+        }
+
+        public InMemory addFiles(long pathId, List<MetadataProto.File> files)
+        {
+            this.files.computeIfAbsent(pathId, k -> new ArrayList<>()).addAll(files);
+            return this;
+        }
+
+        @Override
+        public List<Layout> getLayouts(SchemaTableName st)
+        {
+            return layouts.getOrDefault(st, Collections.emptyList());
+        }
+
+        @Override
+        public List<MetadataProto.File> getFiles(io.pixelsdb.pixels.common.metadata.domain.Path dirPath)
+        {
+            return files.getOrDefault(dirPath.getId(), Collections.emptyList());
+        }
+    }
+}
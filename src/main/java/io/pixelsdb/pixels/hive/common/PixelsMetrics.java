@@ -0,0 +1,418 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import org.apache.hadoop.metrics2.MetricsCollector;
+import org.apache.hadoop.metrics2.MetricsRecordBuilder;
+import org.apache.hadoop.metrics2.MetricsSource;
+import org.apache.hadoop.metrics2.lib.DefaultMetricsSystem;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.hadoop.metrics2.lib.Interns.info;
+
+/**
+ * The registry of the metrics of pixels-hive in the JVM, such as HiveServer2 and LLAP daemons,
+ * where the footer cache, the cache reader and the index caches of the planner are shared by
+ * the queries. It is exported over JMX as {@link #OBJECT_NAME}, and as the hadoop metrics2
+ * source {@link #SOURCE_NAME}.
+ * <p>
+ * The metrics are updated by {@link LongAdder}s, once per planning, file reader or split,
+ * so there is no lock on the hot path. They are summed when they are read.
+ * </p>
+ * Created at: 2026-10-18
+ */
+public class PixelsMetrics implements PixelsMetricsMXBean, MetricsSource
+{
+    private static Logger log = LogManager.getLogger(PixelsMetrics.class);
+
+    public static final String OBJECT_NAME = "io.pixelsdb.pixels.hive:type=PixelsMetrics";
+    public static final String SOURCE_NAME = "PixelsHive";
+
+    /**
+     * The upper bounds of the buckets of the planning latency histogram, the last bucket is unbounded.
+     */
+    private static final long[] LATENCY_BOUNDS = {
+            1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 20000, 60000, Long.MAX_VALUE};
+
+    private static final PixelsMetrics instance = new PixelsMetrics();
+
+    static
+    {
+        instance.register();
+    }
+
+    private final LongAdder splitPlannings = new LongAdder();
+    private final LongAdder splitsPlanned = new LongAdder();
+    private final LongAdder[] planningLatencyBuckets = new LongAdder[LATENCY_BOUNDS.length];
+    private final LongAdder planningMillis = new LongAdder();
+    private final AtomicLong planningMaxMillis = new AtomicLong();
+    private final LongAdder splitsIndexHits = new LongAdder();
+    private final LongAdder splitsIndexMisses = new LongAdder();
+    private final LongAdder projectionsIndexHits = new LongAdder();
+    private final LongAdder projectionsIndexMisses = new LongAdder();
+    private final LongAdder footerCacheHits = new LongAdder();
+    private final LongAdder footerCacheMisses = new LongAdder();
+    private final LongAdder columnChunks = new LongAdder();
+    private final LongAdder cachedColumnChunks = new LongAdder();
+    private volatile int cacheZones;
+    private volatile int cacheSwapZones;
+    private volatile long cacheZoneSize;
+    private final LongAdder splitsRead = new LongAdder();
+    private final LongAdder rowsRead = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder readNanos = new LongAdder();
+
+    private PixelsMetrics()
+    {
+        for (int i = 0; i < planningLatencyBuckets.length; ++i)
+        {
+            planningLatencyBuckets[i] = new LongAdder();
+        }
+    }
+
+    public static PixelsMetrics Instance()
+    {
+        return instance;
+    }
+
+    private void register()
+    {
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (Exception e)
+        {
+            log.warn("failed to register the pixels metrics mbean", e);
+        }
+        try
+        {
+            DefaultMetricsSystem.instance().register(SOURCE_NAME, "Metrics of pixels-hive", this);
+        } catch (Exception e)
+        {
+            log.warn("failed to register the pixels metrics source", e);
+        }
+    }
+
+    /**
+     * Record a planning of the splits.
+     *
+     * @param latencyNanos the latency of the planning
+     * @param numSplits the number of splits planned
+     */
+    public void recordPlanning(long latencyNanos, int numSplits)
+    {
+        long millis = latencyNanos / 1000000;
+        splitPlannings.increment();
+        splitsPlanned.add(numSplits);
+        planningMillis.add(millis);
+        planningMaxMillis.accumulateAndGet(millis, Math::max);
+        int bucket = 0;
+        while (millis > LATENCY_BOUNDS[bucket])
+        {
+            bucket++;
+        }
+        planningLatencyBuckets[bucket].increment();
+    }
+
+    public void recordSplitsIndex(boolean hit)
+    {
+        (hit ? splitsIndexHits : splitsIndexMisses).increment();
+    }
+
+    public void recordProjectionsIndex(boolean hit)
+    {
+        (hit ? projectionsIndexHits : projectionsIndexMisses).increment();
+    }
+
+    public void recordFooterCache(boolean hit)
+    {
+        (hit ? footerCacheHits : footerCacheMisses).increment();
+    }
+
+    /**
+     * Record the memory mapped zones of pixels cache when the cache reader is created.
+     */
+    public void recordCacheZones(int zones, int swapZones, long zoneSize)
+    {
+        this.cacheZones = zones;
+        this.cacheSwapZones = swapZones;
+        this.cacheZoneSize = zoneSize;
+    }
+
+    /**
+     * Record a split that is read by a record reader, when the record reader is closed.
+     *
+     * @param counters the counters of the record reader
+     * @param wallNanos the time the record reader was open
+     */
+    public void recordSplit(PixelsCounters counters, long wallNanos)
+    {
+        splitsRead.increment();
+        rowsRead.add(counters.get(PixelsCounters.Counter.ROWS_READ));
+        bytesRead.add(counters.get(PixelsCounters.Counter.BYTES_READ_HDFS));
+        columnChunks.add(counters.get(PixelsCounters.Counter.COLUMN_CHUNKS_FETCHED));
+        cachedColumnChunks.add(counters.get(PixelsCounters.Counter.COLUMN_CHUNKS_CACHED));
+        readNanos.add(wallNanos);
+    }
+
+    @Override
+    public long getSplitPlannings()
+    {
+        return splitPlannings.sum();
+    }
+
+    @Override
+    public long getSplitsPlanned()
+    {
+        return splitsPlanned.sum();
+    }
+
+    @Override
+    public long[] getPlanningLatencyBucketBounds()
+    {
+        return LATENCY_BOUNDS.clone();
+    }
+
+    @Override
+    public long[] getPlanningLatencyBuckets()
+    {
+        long[] buckets = new long[planningLatencyBuckets.length];
+        for (int i = 0; i < buckets.length; ++i)
+        {
+            buckets[i] = planningLatencyBuckets[i].sum();
+        }
+        return buckets;
+    }
+
+    @Override
+    public double getPlanningLatencyMeanMillis()
+    {
+        long count = splitPlannings.sum();
+        return count == 0 ? 0 : (double) planningMillis.sum() / count;
+    }
+
+    @Override
+    public long getPlanningLatencyMaxMillis()
+    {
+        return planningMaxMillis.get();
+    }
+
+    @Override
+    public long getPlanningLatencyP50Millis()
+    {
+        return getPlanningLatencyPercentile(0.5);
+    }
+
+    @Override
+    public long getPlanningLatencyP90Millis()
+    {
+        return getPlanningLatencyPercentile(0.9);
+    }
+
+    @Override
+    public long getPlanningLatencyP99Millis()
+    {
+        return getPlanningLatencyPercentile(0.99);
+    }
+
+    /**
+     * @return the upper bound of the bucket that contains the percentile, or the max
+     * latency if it is in the last bucket
+     */
+    private long getPlanningLatencyPercentile(double percentile)
+    {
+        long[] buckets = getPlanningLatencyBuckets();
+        long count = 0;
+        for (long bucket : buckets)
+        {
+            count += bucket;
+        }
+        if (count == 0)
+        {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int i = 0; i < buckets.length - 1; ++i)
+        {
+            seen += buckets[i];
+            if (seen >= rank)
+            {
+                return LATENCY_BOUNDS[i];
+            }
+        }
+        return getPlanningLatencyMaxMillis();
+    }
+
+    @Override
+    public long getSplitsIndexHits()
+    {
+        return splitsIndexHits.sum();
+    }
+
+    @Override
+    public long getSplitsIndexMisses()
+    {
+        return splitsIndexMisses.sum();
+    }
+
+    @Override
+    public long getProjectionsIndexHits()
+    {
+        return projectionsIndexHits.sum();
+    }
+
+    @Override
+    public long getProjectionsIndexMisses()
+    {
+        return projectionsIndexMisses.sum();
+    }
+
+    @Override
+    public long getFooterCacheHits()
+    {
+        return footerCacheHits.sum();
+    }
+
+    @Override
+    public long getFooterCacheMisses()
+    {
+        return footerCacheMisses.sum();
+    }
+
+    @Override
+    public double getFooterCacheHitRatio()
+    {
+        return ratio(footerCacheHits.sum(), footerCacheHits.sum() + footerCacheMisses.sum());
+    }
+
+    @Override
+    public double getColumnChunkCacheRatio()
+    {
+        return ratio(cachedColumnChunks.sum(), columnChunks.sum());
+    }
+
+    @Override
+    public int getCacheZones()
+    {
+        return cacheZones;
+    }
+
+    @Override
+    public int getCacheSwapZones()
+    {
+        return cacheSwapZones;
+    }
+
+    @Override
+    public long getCacheZoneSize()
+    {
+        return cacheZoneSize;
+    }
+
+    @Override
+    public long getSplitsRead()
+    {
+        return splitsRead.sum();
+    }
+
+    @Override
+    public long getRowsRead()
+    {
+        return rowsRead.sum();
+    }
+
+    @Override
+    public long getBytesRead()
+    {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getReadMillis()
+    {
+        return readNanos.sum() / 1000000;
+    }
+
+    @Override
+    public double getReadRowsPerSecond()
+    {
+        return perSecond(rowsRead.sum(), readNanos.sum());
+    }
+
+    @Override
+    public double getReadBytesPerSecond()
+    {
+        return perSecond(bytesRead.sum(), readNanos.sum());
+    }
+
+    private static double ratio(long part, long total)
+    {
+        return total == 0 ? 0 : (double) part / total;
+    }
+
+    private static double perSecond(long amount, long nanos)
+    {
+        return nanos == 0 ? 0 : amount * 1e9 / nanos;
+    }
+
+    @Override
+    public void getMetrics(MetricsCollector collector, boolean all)
+    {
+        MetricsRecordBuilder builder = collector.addRecord(SOURCE_NAME).setContext("pixels");
+        builder.addCounter(info("SplitPlannings", "Number of split plannings"), getSplitPlannings())
+                .addCounter(info("SplitsPlanned", "Number of splits planned"), getSplitsPlanned())
+                .addGauge(info("PlanningLatencyMeanMillis", "Mean latency of split planning"),
+                        getPlanningLatencyMeanMillis())
+                .addGauge(info("PlanningLatencyP50Millis", "Median latency of split planning"),
+                        getPlanningLatencyP50Millis())
+                .addGauge(info("PlanningLatencyP90Millis", "90th percentile latency of split planning"),
+                        getPlanningLatencyP90Millis())
+                .addGauge(info("PlanningLatencyP99Millis", "99th percentile latency of split planning"),
+                        getPlanningLatencyP99Millis())
+                .addGauge(info("PlanningLatencyMaxMillis", "Max latency of split planning"),
+                        getPlanningLatencyMaxMillis())
+                .addCounter(info("SplitsIndexHits", "Splits index cache hits"), getSplitsIndexHits())
+                .addCounter(info("SplitsIndexMisses", "Splits index cache misses"), getSplitsIndexMisses())
+                .addCounter(info("ProjectionsIndexHits", "Projections index cache hits"), getProjectionsIndexHits())
+                .addCounter(info("ProjectionsIndexMisses", "Projections index cache misses"),
+                        getProjectionsIndexMisses())
+                .addCounter(info("FooterCacheHits", "Footer cache hits"), getFooterCacheHits())
+                .addCounter(info("FooterCacheMisses", "Footer cache misses"), getFooterCacheMisses())
+                .addGauge(info("FooterCacheHitRatio", "Footer cache hit ratio"), getFooterCacheHitRatio())
+                .addGauge(info("ColumnChunkCacheRatio", "Ratio of column chunks looked up in pixels cache"),
+                        getColumnChunkCacheRatio())
+                .addGauge(info("CacheZones", "Memory mapped zones of pixels cache"), getCacheZones())
+                .addGauge(info("CacheSwapZones", "Swap zones of pixels cache"), getCacheSwapZones())
+                .addGauge(info("CacheZoneSize", "Size of each zone of pixels cache"), getCacheZoneSize())
+                .addCounter(info("SplitsRead", "Number of splits read"), getSplitsRead())
+                .addCounter(info("RowsRead", "Number of rows read"), getRowsRead())
+                .addCounter(info("BytesRead", "Number of bytes read from storage"), getBytesRead())
+                .addCounter(info("ReadMillis", "Time the record readers were open"), getReadMillis())
+                .addGauge(info("ReadRowsPerSecond", "Rows read per second"), getReadRowsPerSecond())
+                .addGauge(info("ReadBytesPerSecond", "Bytes read per second"), getReadBytesPerSecond());
+    }
+}
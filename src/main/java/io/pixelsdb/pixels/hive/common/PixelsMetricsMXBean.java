@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+/**
+ * The metrics of pixels-hive in the JVM, exported over JMX by {@link PixelsMetrics}.
+ * The counters are accumulated since the JVM started.
+ *
+ * Created at: 2026-10-18
+ */
+public interface PixelsMetricsMXBean
+{
+    long getSplitPlannings();
+
+    long getSplitsPlanned();
+
+    /**
+     * @return the upper bounds of the buckets of the planning latency histogram, in milliseconds
+     */
+    long[] getPlanningLatencyBucketBounds();
+
+    /**
+     * @return the number of plannings in each bucket of the planning latency histogram
+     */
+    long[] getPlanningLatencyBuckets();
+
+    double getPlanningLatencyMeanMillis();
+
+    long getPlanningLatencyMaxMillis();
+
+    long getPlanningLatencyP50Millis();
+
+    long getPlanningLatencyP90Millis();
+
+    long getPlanningLatencyP99Millis();
+
+    long getSplitsIndexHits();
+
+    long getSplitsIndexMisses();
+
+    long getProjectionsIndexHits();
+
+    long getProjectionsIndexMisses();
+
+    long getFooterCacheHits();
+
+    /**
+     * @return the footer cache misses, each of them puts a footer into the footer cache
+     */
+    long getFooterCacheMisses();
+
+    double getFooterCacheHitRatio();
+
+    /**
+     * @return the column chunks looked up in pixels cache over the column chunks fetched
+     */
+    double getColumnChunkCacheRatio();
+
+    /**
+     * @return the number of memory mapped zones of pixels cache, 0 if the cache reader is not created
+     */
+    int getCacheZones();
+
+    int getCacheSwapZones();
+
+    long getCacheZoneSize();
+
+    long getSplitsRead();
+
+    long getRowsRead();
+
+    long getBytesRead();
+
+    long getReadMillis();
+
+    /**
+     * @return the rows read per second of the time the record readers were open
+     */
+    double getReadRowsPerSecond();
+
+    double getReadBytesPerSecond();
+}
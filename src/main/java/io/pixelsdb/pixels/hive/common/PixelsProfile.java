@@ -0,0 +1,209 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import com.alibaba.fastjson.JSON;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.Path;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes the performance records of the record readers and writers, if
+ * {@link PixelsConf#PROFILE_DIR} is set. Each record is a line of json written when
+ * the reader or writer is closed. The records of a task attempt are appended to one
+ * file, profile_dir/query_id/task_attempt_id.json, which is flushed after each record.
+ * A JVM runs one task attempt at a time, so the file is closed when the next task attempt
+ * in the JVM writes its first record, or when the JVM exits. The records of a query are
+ * aggregated by {@link PixelsProfileAggregator}.
+ * <p>
+ * The records are best-effort, failing to write them does not fail the task.
+ * </p>
+ * Created at: 2026-10-18
+ */
+public class PixelsProfile
+{
+    private static Logger log = LogManager.getLogger(PixelsProfile.class);
+
+    public static final String TYPE_READ = "read";
+    public static final String TYPE_WRITE = "write";
+
+    private static final String QUERY_ID = "hive.query.id";
+    private static final String JOB_ID = "mapreduce.job.id";
+    private static final String TASK_ATTEMPT_ID = "mapreduce.task.attempt.id";
+    private static final String HOST = getHost();
+    private static final String LOCAL_TASK_ID = "local-" + UUID.randomUUID();
+
+    /**
+     * The file of the current task attempt in this JVM and its stream, guarded by
+     * PixelsProfile.class. The stream is null if the file could not be created.
+     */
+    private static Path taskFile;
+    private static FSDataOutputStream taskStream;
+    private static boolean shutdownHookAdded = false;
+
+    private final Configuration conf;
+    private final Path queryDir;
+    private final String queryId;
+    private final String taskId;
+
+    private PixelsProfile(Configuration conf, Path queryDir, String queryId, String taskId)
+    {
+        this.conf = conf;
+        this.queryDir = queryDir;
+        this.queryId = queryId;
+        this.taskId = taskId;
+    }
+
+    /**
+     * @param conf the configuration of the task, may be null
+     * @return the profile of the query, or null if the records are disabled
+     */
+    public static PixelsProfile create(Configuration conf)
+    {
+        if (conf == null)
+        {
+            return null;
+        }
+        String dir = PixelsConf.PROFILE_DIR.getString(conf);
+        if (dir == null || dir.isEmpty())
+        {
+            return null;
+        }
+        String queryId = conf.get(QUERY_ID, conf.get(JOB_ID, "unknown"));
+        // the task attempt id is not set in the local mode, the JVM has its own file.
+        String taskId = conf.get(TASK_ATTEMPT_ID, LOCAL_TASK_ID);
+        return new PixelsProfile(conf, new Path(dir, queryId), queryId, taskId);
+    }
+
+    /**
+     * Create the record of a split that is read by a record reader.
+     *
+     * @param split the split
+     * @param counters the counters of the record reader
+     * @param wallNanos the time from the creation to the close of the record reader
+     * @return the record
+     */
+    public static Map<String, Object> readRecord(PixelsSplit split, PixelsCounters counters, long wallNanos)
+    {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("path", split.getPath().toString());
+        record.put("rgStart", split.getRgStart());
+        record.put("rgLen", split.getRgLen());
+        record.put("rgSkipped", split.getRgSkipped());
+        record.put("cacheEnabled", split.isCacheEnabled());
+        record.put("rows", counters.get(PixelsCounters.Counter.ROWS_READ));
+        record.put("bytes", counters.get(PixelsCounters.Counter.BYTES_READ_HDFS));
+        record.put("columnChunks", counters.get(PixelsCounters.Counter.COLUMN_CHUNKS_FETCHED));
+        record.put("cachedColumnChunks", counters.get(PixelsCounters.Counter.COLUMN_CHUNKS_CACHED));
+        record.put("footerCached", counters.get(PixelsCounters.Counter.FOOTER_CACHE_HITS) > 0);
+        record.put("ioMillis", counters.get(PixelsCounters.Counter.IO_MILLIS));
+        record.put("decodeMillis", counters.get(PixelsCounters.Counter.DECODE_MILLIS));
+        record.put("materializationMillis", counters.get(PixelsCounters.Counter.MATERIALIZATION_MILLIS));
+        record.put("wallMillis", wallNanos / 1000000);
+        return record;
+    }
+
+    /**
+     * Append the record to the file of the task attempt in the directory of the query.
+     *
+     * @param type the type of the record, i.e., read or write
+     * @param record the fields of the record
+     */
+    public void write(String type, Map<String, Object> record)
+    {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", type);
+        line.put("query", queryId);
+        line.put("task", taskId);
+        line.put("host", HOST);
+        line.put("time", System.currentTimeMillis());
+        line.putAll(record);
+        byte[] bytes = (JSON.toJSONString(line) + "\n").getBytes(StandardCharsets.UTF_8);
+        Path file = new Path(queryDir, taskId + ".json");
+        synchronized (PixelsProfile.class)
+        {
+            if (!file.equals(taskFile))
+            {
+                closeTaskFile();
+                taskFile = file;
+                try
+                {
+                    taskStream = file.getFileSystem(conf).create(file, false);
+                } catch (IOException e)
+                {
+                    log.warn("failed to create the profile file " + file, e);
+                }
+                if (!shutdownHookAdded)
+                {
+                    Runtime.getRuntime().addShutdownHook(new Thread(PixelsProfile::closeTaskFile));
+                    shutdownHookAdded = true;
+                }
+            }
+            if (taskStream == null)
+            {
+                return;
+            }
+            try
+            {
+                taskStream.write(bytes);
+                // the records of a killed task attempt are kept.
+                taskStream.hflush();
+            } catch (IOException e)
+            {
+                log.warn("failed to write the profile record to " + file, e);
+            }
+        }
+    }
+
+    private static synchronized void closeTaskFile()
+    {
+        if (taskStream != null)
+        {
+            try
+            {
+                taskStream.close();
+            } catch (IOException e)
+            {
+                log.warn("failed to close the profile file " + taskFile, e);
+            }
+            taskStream = null;
+        }
+    }
+
+    private static String getHost()
+    {
+        try
+        {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e)
+        {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.conf.Configured;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.util.Tool;
+import org.apache.hadoop.util.ToolRunner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates the records written by {@link PixelsProfile} into the profile of each query:
+ * the totals of the splits read and the files written, the skew of the wall time and the
+ * bytes among the splits, the time in each phase, the I/O amplification, and the slowest splits.
+ * <p>
+ * The I/O amplification is the bytes read by all the task attempts divided by the bytes read
+ * for the distinct splits, it is larger than 1 if the splits are read by failed or speculative
+ * attempts.
+ * </p>
+ * Usage:
+ * <pre>
+ * hadoop jar pixels-hive-full.jar io.pixelsdb.pixels.hive.common.PixelsProfileAggregator \
+ *   profile_dir [query_id]
+ * </pre>
+ * Created at: 2026-10-18
+ */
+public class PixelsProfileAggregator extends Configured implements Tool
+{
+    private static final int NUM_SLOWEST = 5;
+
+    @Override
+    public int run(String[] args) throws Exception
+    {
+        if (args.length < 1)
+        {
+            System.err.println("Usage: PixelsProfileAggregator profile_dir [query_id]");
+            return 1;
+        }
+        Path dir = new Path(args[0]);
+        FileSystem fs = dir.getFileSystem(getConf());
+        List<Path> queryDirs = new ArrayList<>();
+        if (args.length > 1)
+        {
+            queryDirs.add(new Path(dir, args[1]));
+        } else
+        {
+            for (FileStatus status : fs.listStatus(dir))
+            {
+                if (status.isDirectory())
+                {
+                    queryDirs.add(status.getPath());
+                }
+            }
+        }
+        for (Path queryDir : queryDirs)
+        {
+            List<JSONObject> records = readRecords(fs, queryDir);
+            print(queryDir.getName(), records, System.out);
+        }
+        return 0;
+    }
+
+    private static List<JSONObject> readRecords(FileSystem fs, Path queryDir) throws IOException
+    {
+        List<JSONObject> records = new ArrayList<>();
+        for (FileStatus status : fs.listStatus(queryDir))
+        {
+            if (!status.isFile())
+            {
+                continue;
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    fs.open(status.getPath()), StandardCharsets.UTF_8)))
+            {
+                String line;
+                while ((line = reader.readLine()) != null)
+                {
+                    if (!line.isEmpty())
+                    {
+                        records.add(JSON.parseObject(line));
+                    }
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Print the profile of the query.
+     *
+     * @param queryId the id of the query
+     * @param records the records of the query
+     * @param out the stream to print to
+     */
+    public static void print(String queryId, List<JSONObject> records, PrintStream out)
+    {
+        List<JSONObject> reads = new ArrayList<>();
+        List<JSONObject> writes = new ArrayList<>();
+        for (JSONObject record : records)
+        {
+            if (PixelsProfile.TYPE_READ.equals(record.getString("type")))
+            {
+                reads.add(record);
+            } else if (PixelsProfile.TYPE_WRITE.equals(record.getString("type")))
+            {
+                writes.add(record);
+            }
+        }
+        out.println("query " + queryId);
+        if (!reads.isEmpty())
+        {
+            printReads(reads, out);
+        }
+        if (!writes.isEmpty())
+        {
+            out.printf("  write files: %d, rows: %d, bytes: %d, row groups: %d, flush ms: %d%n",
+                    writes.size(), sum(writes, "rows"), sum(writes, "bytes"),
+                    sum(writes, "rowGroups"), sum(writes, "flushMillis"));
+            printSkew("  write file wall ms", writes, "wallMillis", out);
+            printSkew("  write file bytes", writes, "bytes", out);
+        }
+        out.println();
+    }
+
+    private static void printReads(List<JSONObject> reads, PrintStream out)
+    {
+        long bytes = sum(reads, "bytes");
+        long rows = sum(reads, "rows");
+        long footerHits = 0;
+        // the distinct splits, the attempt of a split that was closed last is kept.
+        Map<String, JSONObject> lastReads = new HashMap<>();
+        for (JSONObject read : reads)
+        {
+            if (read.getBooleanValue("footerCached"))
+            {
+                footerHits++;
+            }
+            String split = read.getString("path") + ":" + read.getIntValue("rgStart") + "+" +
+                    read.getIntValue("rgLen");
+            JSONObject last = lastReads.get(split);
+            if (last == null || read.getLongValue("time") >= last.getLongValue("time"))
+            {
+                lastReads.put(split, read);
+            }
+        }
+        long distinctBytes = 0;
+        for (JSONObject read : lastReads.values())
+        {
+            distinctBytes += read.getLongValue("bytes");
+        }
+        long columnChunks = sum(reads, "columnChunks");
+        out.printf("  read splits: %d (%d distinct), rows: %d, bytes: %d, bytes per row: %.1f%n",
+                reads.size(), lastReads.size(), rows, bytes, rows == 0 ? 0.0 : (double) bytes / rows);
+        out.printf("  row groups scanned: %d, skipped: %d, column chunks: %d, cached: %.1f%%, " +
+                        "footer cache hits: %.1f%%%n",
+                sum(reads, "rgLen"), sum(reads, "rgSkipped"), columnChunks,
+                percent(sum(reads, "cachedColumnChunks"), columnChunks), percent(footerHits, reads.size()));
+        long io = sum(reads, "ioMillis");
+        long decode = sum(reads, "decodeMillis");
+        long materialization = sum(reads, "materializationMillis");
+        long total = io + decode + materialization;
+        out.printf("  phases ms: io %d (%.1f%%), decode %d (%.1f%%), materialization %d (%.1f%%)%n",
+                io, percent(io, total), decode, percent(decode, total),
+                materialization, percent(materialization, total));
+        out.printf("  io amplification: %.2f%n", distinctBytes == 0 ? 1.0 : (double) bytes / distinctBytes);
+        printSkew("  split wall ms", reads, "wallMillis", out);
+        printSkew("  split bytes", reads, "bytes", out);
+
+        List<JSONObject> slowest = new ArrayList<>(reads);
+        slowest.sort(Comparator.comparingLong((JSONObject read) -> read.getLongValue("wallMillis")).reversed());
+        out.println("  slowest splits:");
+        for (JSONObject read : slowest.subList(0, Math.min(NUM_SLOWEST, slowest.size())))
+        {
+            out.printf("    %s:%d+%d %d ms, %d bytes, %d rows, task %s on %s%n",
+                    read.getString("path"), read.getIntValue("rgStart"), read.getIntValue("rgLen"),
+                    read.getLongValue("wallMillis"), read.getLongValue("bytes"), read.getLongValue("rows"),
+                    read.getString("task"), read.getString("host"));
+        }
+    }
+
+    /**
+     * Print the min, median, p90 and max of the field, and the skew, i.e., max / median.
+     */
+    private static void printSkew(String name, List<JSONObject> records, String field, PrintStream out)
+    {
+        long[] values = new long[records.size()];
+        for (int i = 0; i < values.length; ++i)
+        {
+            values[i] = records.get(i).getLongValue(field);
+        }
+        Arrays.sort(values);
+        long median = values[values.length / 2];
+        long p90 = values[(int) Math.min(values.length - 1, Math.ceil(values.length * 0.9) - 1)];
+        long max = values[values.length - 1];
+        out.printf("%s: min %d, median %d, p90 %d, max %d, skew %.2f%n", name,
+                values[0], median, p90, max, median == 0 ? 0.0 : (double) max / median);
+    }
+
+    private static long sum(List<JSONObject> records, String field)
+    {
+        long sum = 0;
+        for (JSONObject record : records)
+        {
+            sum += record.getLongValue(field);
+        }
+        return sum;
+    }
+
+    private static double percent(long part, long total)
+    {
+        return total == 0 ? 0.0 : 100.0 * part / total;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        System.exit(ToolRunner.run(new Configuration(), new PixelsProfileAggregator(), args));
+    }
+}
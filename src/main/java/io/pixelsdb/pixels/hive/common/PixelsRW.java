@@ -52,6 +52,22 @@ public class PixelsRW
     private static ConfigFactory pixelsConf = ConfigFactory.Instance();
     private static PixelsCacheReader cacheReader = null;
     private static PixelsFooterCache footerCache = new PixelsFooterCache();
+    /**
+     * The bounds of the number of rows in the row batches of the record readers.
+     */
+    private static final int MIN_READ_BATCH_SIZE = 64;
+    private static final int MAX_READ_BATCH_SIZE = 65536;
+    /**
+     * The width of the entry of a value in a binary column vector: the reference
+     * to the byte array, and the start and length of the value in the array.
+     */
+    private static final int BINARY_ENTRY_WIDTH = 8 + Integer.BYTES * 2;
+    /**
+     * The row group is flushed by the writer after its size exceeds the row group
+     * size, and the row group footer is written after it. So that we leave some
+     * room in each row group for them to not straddle the block boundary.
+     */
+    private static final double ROW_GROUP_SIZE_MARGIN = 0.95;
 
     protected PixelsRW()
     {
@@ -63,9 +79,16 @@ public class PixelsRW
         private PixelsReaderOption option;
         private PixelsSplit split;
         private int batchSize;
-        private List<Integer> pixelsIncluded;
-        private List<Integer> hiveIncluded;
+        private long batchMemory;
+        private int stringWidth;
+        private int[] pixelsIncluded;
+        private int[] hiveIncluded;
+        private Set<String> nestedColumnPaths;
         private boolean readAllColumns;
+        private boolean bytesView;
+        private boolean lazy;
+        private boolean footerCached;
+        private PixelsProfile profile;
 
         private ReaderOptions(Configuration conf, PixelsSplit split)
         {
@@ -80,7 +103,12 @@ public class PixelsRW
                 log.error("failed to get file system.", e);
             }
             this.batchSize = Integer.parseInt(pixelsConf.getProperty("row.batch.size"));
+            this.batchMemory = PixelsConf.READ_BATCH_MEMORY.getLong(conf);
+            this.stringWidth = (int) PixelsConf.STRING_WIDTH.getLong(conf);
             this.readAllColumns = ColumnProjectionUtils.isReadAllColumns(conf);
+            this.bytesView = PixelsConf.READ_BYTES_VIEW.getBoolean(conf);
+            this.lazy = PixelsConf.READ_LAZY.getBoolean(conf);
+            this.profile = PixelsProfile.create(conf);
             this.option = new PixelsReaderOption();
             this.option.skipCorruptRecords(true);
             this.option.tolerantSchemaEvolution(true);
@@ -88,10 +116,15 @@ public class PixelsRW
             String[] columns = ColumnProjectionUtils.getReadColumnNames(conf);
             this.option.includeCols(columns);
 
-            this.hiveIncluded =  ColumnProjectionUtils.getReadColumnIDs(conf);
+            this.hiveIncluded = toArray(ColumnProjectionUtils.getReadColumnIDs(conf));
+            this.nestedColumnPaths = new HashSet<>();
+            for (String path : ColumnProjectionUtils.getNestedColumnPaths(conf))
+            {
+                this.nestedColumnPaths.add(path.toLowerCase());
+            }
             // The column order in hive is not the same as the column order in pixels files.
             // So we have to generate pixelsIncluded from the pixels column order.
-            this.pixelsIncluded = new ArrayList<>();
+            List<Integer> pixelsIncluded = new ArrayList<>();
             if (!readAllColumns)
             {
                 List<String> columnOrder = split.getOrder();
@@ -104,10 +137,11 @@ public class PixelsRW
                 {
                     if (nameToOrder.containsKey(columns[i]))
                     {
-                        this.pixelsIncluded.add(nameToOrder.get(columns[i]));
+                        pixelsIncluded.add(nameToOrder.get(columns[i]));
                     }
                 }
             }
+            this.pixelsIncluded = toArray(pixelsIncluded);
 
             // if cache is enabled, create cache reader.
             if (split.isCacheEnabled() && cacheReader == null)
@@ -141,6 +175,7 @@ public class PixelsRW
                         .setCacheFiles(zoneCacheFiles, swapZoneNum)
                         .setIndexFiles(zoneIndexFiles, globalIndexFile)
                         .build();
+                PixelsMetrics.Instance().recordCacheZones(zoneCacheFiles.size(), swapZoneNum, zoneSize);
             }
         }
 
@@ -154,16 +189,39 @@ public class PixelsRW
             return option;
         }
 
-        public List<Integer> getPixelsIncluded()
+        public int[] getPixelsIncluded()
         {
             return pixelsIncluded;
         }
 
-        public List<Integer> getHiveIncluded()
+        public int[] getHiveIncluded()
         {
             return hiveIncluded;
         }
 
+        /**
+         * @return the lower case nested column paths projected by hive, e.g., s.a
+         */
+        public Set<String> getNestedColumnPaths()
+        {
+            return nestedColumnPaths;
+        }
+
+        private static int[] toArray(List<Integer> list)
+        {
+            int[] array = new int[list.size()];
+            for (int i = 0; i < array.length; ++i)
+            {
+                array[i] = list.get(i);
+            }
+            return array;
+        }
+
+        public PixelsSplit getSplit()
+        {
+            return split;
+        }
+
         public boolean isCacheEnabled() { return split.isCacheEnabled(); }
 
         public List<String> getCacheOrder() { return split.getCacheOrder(); }
@@ -175,7 +233,126 @@ public class PixelsRW
             return readAllColumns;
         }
 
-        public int getBatchSize() { return batchSize; }
+        /**
+         * Get the number of rows in the row batches of the split, so that the projected columns
+         * of a row batch fit in {@link PixelsConf#READ_BATCH_MEMORY}. Narrow projections get large
+         * row batches, while wide projections get small row batches that do not blow up the heap.
+         * The width of the string and binary columns is the average width of their values in the
+         * row groups of the split, which is computed from the statistics in the file footer.
+         * {@link PixelsConf#STRING_WIDTH} is only assumed for the columns without statistics and
+         * the nested columns.
+         *
+         * @param reader the reader of the file
+         * @return the number of rows, or the row.batch.size in pixels config if the budget is not positive
+         */
+        public int getBatchSize(PixelsReader reader) throws IOException
+        {
+            if (batchMemory <= 0)
+            {
+                return batchSize;
+            }
+            List<TypeDescription> children = reader.getFileSchema().getChildren();
+            // one byte for the null flag of each column.
+            long rowWidth = 1;
+            for (int columnId = 0; columnId < children.size(); ++columnId)
+            {
+                if (!readAllColumns && !isIncluded(columnId))
+                {
+                    continue;
+                }
+                TypeDescription type = children.get(columnId);
+                rowWidth += estimateRowWidth(type, getVariableWidth(reader, columnId, type)) + 1;
+            }
+            long rows = batchMemory / rowWidth;
+            return (int) Math.max(MIN_READ_BATCH_SIZE, Math.min(MAX_READ_BATCH_SIZE, rows));
+        }
+
+        private boolean isIncluded(int columnId)
+        {
+            for (int included : pixelsIncluded)
+            {
+                if (included == columnId)
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Get the average width of the values of a string or binary column in the row groups of
+         * the split, from the total length and the number of the values in the statistics of the
+         * row groups. It is clamped by the memory budget of the row batch.
+         *
+         * @return the average width, or {@link PixelsConf#STRING_WIDTH} if it can not be computed
+         */
+        private int getVariableWidth(PixelsReader reader, int columnId, TypeDescription type) throws IOException
+        {
+            boolean binary;
+            switch (type.getCategory())
+            {
+                case STRING:
+                case CHAR:
+                case VARCHAR:
+                    binary = false;
+                    break;
+                case BINARY:
+                case VARBINARY:
+                    binary = true;
+                    break;
+                default:
+                    return stringWidth;
+            }
+            long bytes = 0, values = 0;
+            int rgEnd = Math.min(split.getRgStart() + split.getRgLen(), reader.getNumberOfRowGroups());
+            for (int rgId = split.getRgStart(); rgId < rgEnd; ++rgId)
+            {
+                PixelsProto.ColumnStatistic stat = reader.getRowGroupStat(rgId).getColumnChunkStats(columnId);
+                if (binary ? !stat.hasBinaryStatistics() : !stat.hasStringStatistics())
+                {
+                    return stringWidth;
+                }
+                bytes += binary ? stat.getBinaryStatistics().getSum() : stat.getStringStatistics().getSum();
+                values += stat.getNumberOfValues();
+            }
+            if (values == 0)
+            {
+                return stringWidth;
+            }
+            return (int) Math.min(Math.min(Integer.MAX_VALUE, batchMemory), (bytes + values - 1) / values);
+        }
+
+        /**
+         * @return true if the string and binary values are read as {@link PixelsBytesView}
+         */
+        public boolean isBytesView()
+        {
+            return bytesView;
+        }
+
+        /**
+         * @return true if the fields are decoded only when they are accessed
+         */
+        public boolean isLazy()
+        {
+            return lazy;
+        }
+
+        /**
+         * @return true if the footer of the file was in the footer cache when the reader was created
+         */
+        public boolean isFooterCached()
+        {
+            return footerCached;
+        }
+
+        /**
+         * @return the profile to write the record of the split, or null if it is disabled
+         */
+        public PixelsProfile getProfile()
+        {
+            return profile;
+        }
     }
 
     public static ReaderOptions readerOptions(Configuration conf, PixelsSplit split)
@@ -187,7 +364,10 @@ public class PixelsRW
                                             ReaderOptions options) throws IOException
     {
         boolean isCacheEnabled = options.isCacheEnabled();
-        return PixelsReaderImpl.newBuilder()
+        options.footerCached = footerCache.getFileTail(path.toString()) != null;
+        PixelsMetrics.Instance().recordFooterCache(options.footerCached);
+        PixelsEvents.FooterRead event = PixelsEvents.beginFooterRead();
+        PixelsReader reader = PixelsReaderImpl.newBuilder()
                 .setStorage(options.getStorage())
                 .setPath(path.toString())
                 .setEnableCache(isCacheEnabled)
@@ -197,6 +377,89 @@ public class PixelsRW
                 // currently, the footerCache lifetime is hive-cli session wide.
                 .setPixelsFooterCache(footerCache)
                 .build();
+        if (event.isEnabled())
+        {
+            event.setPath(path.toString());
+            event.setCached(options.footerCached);
+            event.commit();
+        }
+        return reader;
+    }
+
+    /**
+     * Get the number of rows in the row groups of the split from the footer of the file.
+     *
+     * @param reader the reader of the file
+     * @param split the split
+     * @return the number of rows to be read in the split
+     */
+    public static long getNumberOfRows(PixelsReader reader, PixelsSplit split) throws IOException
+    {
+        int rgEnd = Math.min(split.getRgStart() + split.getRgLen(), reader.getNumberOfRowGroups());
+        long numRows = 0;
+        for (int rgId = split.getRgStart(); rgId < rgEnd; ++rgId)
+        {
+            numRows += reader.getRowGroupInfo(rgId).getNumberOfRows();
+        }
+        return numRows;
+    }
+
+    /**
+     * Estimate the width of a row in the column vectors of a row batch, in bytes.
+     * It follows the arrays that back the vectors: a byte for boolean, a long for the
+     * integral types, date, float, double, decimal and time, a long and an int for
+     * timestamp, and for the variable-length types, the values plus the reference
+     * to the value and its start and length in the binary column vector.
+     *
+     * @param schema the schema of the row
+     * @param variableWidth the estimated width of the variable-length values, it also
+     *                      caps the maximum length of char and varchar
+     * @return the estimated row width
+     */
+    public static int estimateRowWidth(TypeDescription schema, int variableWidth)
+    {
+        switch (schema.getCategory())
+        {
+            case BOOLEAN:
+                // ByteColumnVector.
+                return 1;
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+            case DATE:
+                // LongColumnVector.
+            case FLOAT:
+            case DOUBLE:
+                // DoubleColumnVector holds the bits of the values in longs.
+            case DECIMAL:
+                // DecimalColumnVector holds the unscaled values in longs.
+            case TIME:
+                // not written by hive, at most a long per value.
+                return Long.BYTES;
+            case TIMESTAMP:
+                // TimestampColumnVector holds the millis in longs and the nanos in ints.
+                return Long.BYTES + Integer.BYTES;
+            case CHAR:
+            case VARCHAR:
+                return Math.min(schema.getMaxLength(), variableWidth) + BINARY_ENTRY_WIDTH;
+            case STRING:
+            case BINARY:
+            case VARBINARY:
+                return variableWidth + BINARY_ENTRY_WIDTH;
+            case STRUCT:
+            {
+                int width = 0;
+                for (TypeDescription child : schema.getChildren())
+                {
+                    // one byte for the null flag of each child.
+                    width += estimateRowWidth(child, variableWidth) + 1;
+                }
+                return width;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown type " + schema);
+        }
     }
 
     /**
@@ -213,7 +476,15 @@ public class PixelsRW
         private short blockReplication;
         private boolean blockPaddingValue;
         private EncodingLevel encodingLevel;
+        private boolean encodingAuto;
+        private double encodingMinGain;
+        private Map<String, String> columnEncodings;
         private int compressionStrategy;
+        private int compressionBlockSize;
+        private PixelsMemoryManager memoryManagerValue;
+        private List<String> bloomFilterColumns;
+        private double bloomFilterFpp;
+        private int stringWidth;
 
         protected WriterOptions(Properties tableProperties, Configuration conf)
         {
@@ -226,7 +497,19 @@ public class PixelsRW
             blockPaddingValue =
                     PixelsConf.BLOCK_PADDING.getBoolean(tableProperties, conf);
             encodingLevel = PixelsConf.ENCODING_LEVEL.getEncodingLevel(tableProperties, conf);
+            encodingAuto = PixelsConf.ENCODING_LEVEL.isAutoEncoding(tableProperties, conf);
+            encodingMinGain = PixelsConf.ENCODING_AUTO_MIN_GAIN.getDouble(tableProperties, conf);
+            columnEncodings = PixelsEncodingSelector.getColumnEncodings(tableProperties);
             compressionStrategy = (int) PixelsConf.COMPRESSION_STRATEGY.getLong(tableProperties, conf);
+            // the compression strategy was used as the compression block size.
+            compressionBlockSize = PixelsConf.COMPRESSION_BLOCK_SIZE.isSet(tableProperties, conf) ||
+                    !PixelsConf.COMPRESSION_STRATEGY.isSet(tableProperties, conf) ?
+                    (int) PixelsConf.COMPRESSION_BLOCK_SIZE.getLong(tableProperties, conf) : compressionStrategy;
+            memoryManagerValue = PixelsMemoryManager.getInstance(conf);
+            bloomFilterColumns = PixelsBloomFilterIndex.parseColumns(
+                    PixelsConf.BLOOM_FILTER_COLUMNS.getString(tableProperties, conf));
+            bloomFilterFpp = PixelsConf.BLOOM_FILTER_FPP.getDouble(tableProperties, conf);
+            stringWidth = (int) PixelsConf.STRING_WIDTH.getLong(tableProperties, conf);
         }
 
         /**
@@ -257,6 +540,8 @@ public class PixelsRW
          * Set the stripe size for the file. The writer stores the contents of the
          * stripe in memory until this memory limit is reached and the stripe
          * is flushed to the HDFS file and the next stripe started.
+         * In Pixels, a stripe is a row group, thus row groups are sized by bytes
+         * instead of by the number of rows.
          */
         public WriterOptions stripeSize(long value)
         {
@@ -278,6 +563,7 @@ public class PixelsRW
          * Set the distance between entries in the row index. The minimum value is
          * 1000 to prevent the index from overwhelming the data. If the stride is
          * set to 0, no indexes will be included in the file.
+         * This is the pixel stride of the file, it does not affect the row group size.
          */
         public WriterOptions rowIndexStride(int value)
         {
@@ -318,12 +604,75 @@ public class PixelsRW
             return this;
         }
 
+        /**
+         * Sets whether the encoding level of each file is selected by sampling the
+         * first row batch written into the file. The encoding level set by
+         * {@link #encodingLevel(EncodingLevel)} is used if there are no rows to sample.
+         */
+        public WriterOptions encodingAuto(boolean value)
+        {
+            encodingAuto = value;
+            return this;
+        }
+
+        /**
+         * Sets the encodings of the columns, they are respected when the encoding
+         * level is selected automatically.
+         */
+        public WriterOptions columnEncodings(Map<String, String> value)
+        {
+            columnEncodings = value;
+            return this;
+        }
+
+        /**
+         * @deprecated the pixels writer does not have compression strategies,
+         * use {@link #compressionBlockSize(int)} instead.
+         */
+        @Deprecated
         public WriterOptions compressionStrategy(int strategy)
         {
             compressionStrategy = strategy;
             return this;
         }
 
+        /**
+         * Sets the compression block size of the column chunks.
+         */
+        public WriterOptions compressionBlockSize(int value)
+        {
+            compressionBlockSize = value;
+            return this;
+        }
+
+        /**
+         * Set the columns to build bloom filters for each row group.
+         */
+        public WriterOptions bloomFilterColumns(List<String> columns)
+        {
+            bloomFilterColumns = columns;
+            return this;
+        }
+
+        /**
+         * Set the false positive probability of the bloom filters.
+         */
+        public WriterOptions bloomFilterFpp(double fpp)
+        {
+            bloomFilterFpp = fpp;
+            return this;
+        }
+
+        /**
+         * A package local option to set the memory manager.
+         * By default, the memory manager shared by the writers in this JVM is used.
+         */
+        WriterOptions memory(PixelsMemoryManager value)
+        {
+            memoryManagerValue = value;
+            return this;
+        }
+
         /**
          * Set the schema for the file. This is a required parameter.
          *
@@ -386,6 +735,48 @@ public class PixelsRW
             return encodingLevel;
         }
 
+        public boolean isEncodingAuto()
+        {
+            return encodingAuto;
+        }
+
+        public double getEncodingMinGain()
+        {
+            return encodingMinGain;
+        }
+
+        public Map<String, String> getColumnEncodings()
+        {
+            return columnEncodings;
+        }
+
+        public int getCompressionBlockSize()
+        {
+            return compressionBlockSize;
+        }
+
+        public PixelsMemoryManager getMemoryManager()
+        {
+            return memoryManagerValue;
+        }
+
+        public List<String> getBloomFilterColumns()
+        {
+            return bloomFilterColumns;
+        }
+
+        public double getBloomFilterFpp()
+        {
+            return bloomFilterFpp;
+        }
+
+        /**
+         * @return the width assumed for the string and binary values in bytes
+         */
+        public int getStringWidth()
+        {
+            return stringWidth;
+        }
     }
 
     /**
@@ -413,6 +804,34 @@ public class PixelsRW
         return new WriterOptions(tableProperties, conf);
     }
 
+    /**
+     * Get the target row group size in bytes. It is the stripe size scaled by the
+     * memory manager. If block padding is enabled, it is adjusted so that an
+     * integral number of row groups fit in a block, thus each split reads a
+     * single block. Padding is skipped if the block size is not positive.
+     * <p>
+     * The scale is read once when the writer is created, as the row group size of
+     * a pixels writer can not be changed after it is built. If the scale drops later,
+     * the record writer rolls over to a new file to release the buffered row group,
+     * see {@link io.pixelsdb.pixels.hive.mapred.PixelsMapredRecordWriter#isOverBudget()}.
+     * </p>
+     *
+     * @param opts the options
+     * @return the row group size in bytes
+     */
+    static int getRowGroupSize(WriterOptions opts)
+    {
+        long rowGroupSize = Math.max(1, Math.round(opts.getStripeSize() *
+                opts.getMemoryManager().getAllocationScale()));
+        long blockSize = opts.getBlockSize();
+        if (opts.getBlockPadding() && blockSize > 0)
+        {
+            long numRowGroupInBlock = (blockSize + rowGroupSize - 1) / rowGroupSize;
+            rowGroupSize = Math.max(1, (long) (blockSize / numRowGroupInBlock * ROW_GROUP_SIZE_MARGIN));
+        }
+        return (int) Math.min(rowGroupSize, Integer.MAX_VALUE);
+    }
+
     /**
      * Create an PIXELS file writer. This is the public interface for creating
      * writers going forward and new options will only be added to this method.
@@ -432,7 +851,7 @@ public class PixelsRW
                 PixelsWriterImpl.newBuilder()
                         .setSchema(opts.schema)
                         .setPixelStride(opts.getRowIndexStride())
-                        .setRowGroupSize(opts.getRowIndexStride())
+                        .setRowGroupSize(getRowGroupSize(opts))
                         .setStorage(new HDFS(fs, opts.getConfiguration()))
                         .setPath(path.toString())
                         .setBlockSize(opts.getBlockSize())
@@ -440,7 +859,7 @@ public class PixelsRW
                         .setBlockPadding(opts.getBlockPadding())
                         .setEncodingLevel(opts.getEncodingLevel())
                         .setNullsPadding(false)
-                        .setCompressionBlockSize(opts.getCompressionStrategy())
+                        .setCompressionBlockSize(opts.getCompressionBlockSize())
                         .build();
     }
 
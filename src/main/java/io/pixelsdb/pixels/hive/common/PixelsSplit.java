@@ -56,6 +56,11 @@ public class PixelsSplit extends FileSplit
     private Path file;
     private int rgStart;
     private int rgLen;
+    /**
+     * The number of row groups in the file that are skipped when planning the
+     * splits, it is only set on one of the splits of the file.
+     */
+    private int rgSkipped;
     private long length;
     private boolean cacheEnabled;
     private List<String> cacheOrder;
@@ -145,6 +150,16 @@ public class PixelsSplit extends FileSplit
         return rgLen;
     }
 
+    public int getRgSkipped()
+    {
+        return rgSkipped;
+    }
+
+    public void setRgSkipped(int rgSkipped)
+    {
+        this.rgSkipped = rgSkipped;
+    }
+
     public boolean isCacheEnabled()
     {
         return cacheEnabled;
@@ -187,6 +202,7 @@ public class PixelsSplit extends FileSplit
         Text.writeString(out, file.toString());
         out.writeInt(rgStart);
         out.writeInt(rgLen);
+        out.writeInt(rgSkipped);
         out.writeLong(length);
         out.writeBoolean(cacheEnabled);
         out.writeInt(cacheOrder.size());
@@ -207,6 +223,7 @@ public class PixelsSplit extends FileSplit
         file = new Path(Text.readString(in));
         rgStart = in.readInt();
         rgLen = in.readInt();
+        rgSkipped = in.readInt();
         length = in.readLong();
         cacheEnabled = in.readBoolean();
         int cacheOrderSize = in.readInt();
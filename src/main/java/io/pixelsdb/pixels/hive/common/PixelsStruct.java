@@ -22,8 +22,13 @@ package io.pixelsdb.pixels.hive.common;
 import io.pixelsdb.pixels.core.PixelsProto;
 import io.pixelsdb.pixels.core.TypeDescription;
 import org.apache.hadoop.hive.serde2.io.DateWritable;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.apache.hadoop.hive.serde2.io.TimestampWritable;
 import org.apache.hadoop.hive.serde2.objectinspector.*;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.AbstractPrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.BinaryObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.StringObjectInspector;
 import org.apache.hadoop.hive.serde2.typeinfo.*;
 import org.apache.hadoop.io.*;
 import org.apache.logging.log4j.LogManager;
@@ -33,6 +38,7 @@ import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -51,6 +57,16 @@ final public class PixelsStruct implements Writable
 
     private Object[] fields;
 
+    /*
+     * The states of the lazy fields, they are null if no field is lazy.
+     * A lazy field is decoded from its column vector when it is accessed
+     * for the first time in the current row, so that the fields of the rows
+     * filtered out by hive are never materialized.
+     */
+    private PixelsColumnReader[] readers = null;
+    private boolean[] loaded = null;
+    private int row = 0;
+
     public PixelsStruct(int children)
     {
         fields = new Object[children];
@@ -58,12 +74,67 @@ final public class PixelsStruct implements Writable
 
     public Object getFieldValue(int fieldIndex)
     {
+        if (readers != null && readers[fieldIndex] != null && !loaded[fieldIndex])
+        {
+            fields[fieldIndex] = readers[fieldIndex].read(row);
+            loaded[fieldIndex] = true;
+        }
         return fields[fieldIndex];
     }
 
     public void setFieldValue(int fieldIndex, Object value)
     {
         fields[fieldIndex] = value;
+        if (loaded != null)
+        {
+            loaded[fieldIndex] = true;
+        }
+    }
+
+    /**
+     * Make the field lazy, it is decoded by the reader when it is accessed.
+     * The field should be set again when the reader is bound to a new row batch.
+     * If the value of the reader is constant in the row batch, it is set
+     * into the field directly.
+     *
+     * @param fieldIndex the index of the field
+     * @param reader the reader of the column, it is bound to the current row batch
+     */
+    public void setLazyField(int fieldIndex, PixelsColumnReader reader)
+    {
+        if (readers == null)
+        {
+            readers = new PixelsColumnReader[fields.length];
+            loaded = new boolean[fields.length];
+        }
+        if (reader.isConstant())
+        {
+            readers[fieldIndex] = null;
+            fields[fieldIndex] = reader.read(0);
+            loaded[fieldIndex] = true;
+        } else
+        {
+            readers[fieldIndex] = reader;
+            loaded[fieldIndex] = false;
+        }
+    }
+
+    /**
+     * Move the lazy fields to the row in the current row batch. The values of the
+     * previous row are kept in the fields and reused when the fields are decoded.
+     *
+     * @param row the row id in the current row batch
+     */
+    public void setLazyRow(int row)
+    {
+        this.row = row;
+        if (loaded != null)
+        {
+            for (int i = 0; i < loaded.length; ++i)
+            {
+                loaded[i] = readers[i] == null;
+            }
+        }
     }
 
     public int getNumFields()
@@ -85,6 +156,15 @@ final public class PixelsStruct implements Writable
             fields = new Object[numFields];
             System.arraycopy(oldFields, 0, fields, 0,
                     Math.min(oldFields.length, numFields));
+            if (readers != null)
+            {
+                readers = Arrays.copyOf(readers, numFields);
+                boolean[] oldLoaded = loaded;
+                loaded = new boolean[numFields];
+                Arrays.fill(loaded, true);
+                System.arraycopy(oldLoaded, 0, loaded, 0,
+                        Math.min(oldLoaded.length, numFields));
+            }
         }
     }
 
@@ -96,6 +176,9 @@ final public class PixelsStruct implements Writable
     void linkFields(PixelsStruct other)
     {
         fields = other.fields;
+        readers = other.readers;
+        loaded = other.loaded;
+        row = other.row;
     }
 
     @Override
@@ -125,15 +208,16 @@ final public class PixelsStruct implements Writable
             }
             for (int i = 0; i < fields.length; ++i)
             {
-                if (fields[i] == null)
+                Object field = getFieldValue(i);
+                if (field == null)
                 {
-                    if (oth.fields[i] != null)
+                    if (oth.getFieldValue(i) != null)
                     {
                         return false;
                     }
                 } else
                 {
-                    if (!fields[i].equals(oth.fields[i]))
+                    if (!field.equals(oth.getFieldValue(i)))
                     {
                         return false;
                     }
@@ -147,8 +231,9 @@ final public class PixelsStruct implements Writable
     public int hashCode()
     {
         int result = fields.length;
-        for (Object field : fields)
+        for (int i = 0; i < fields.length; ++i)
         {
+            Object field = getFieldValue(i);
             if (field != null)
             {
                 result ^= field.hashCode();
@@ -168,7 +253,7 @@ final public class PixelsStruct implements Writable
             {
                 buffer.append(", ");
             }
-            buffer.append(fields[i]);
+            buffer.append(getFieldValue(i));
         }
         buffer.append("}");
         return buffer.toString();
@@ -181,7 +266,7 @@ final public class PixelsStruct implements Writable
     {
         switch (type.getCategory())
         {
-            // TODO: TIME and TIMESTAMP are currently not supported in Hive.
+            // TODO: TIME is currently not supported in Hive.
             case BOOLEAN:
                 return new BooleanWritable();
             case BYTE:
@@ -195,8 +280,9 @@ final public class PixelsStruct implements Writable
             case FLOAT:
                 return new FloatWritable();
             case DOUBLE:
-            case DECIMAL: // TODO: precision and scale are ignored.
                 return new DoubleWritable();
+            case DECIMAL:
+                return new HiveDecimalWritable();
             case BINARY:
             case VARBINARY:
                 return new BytesWritable();
@@ -206,6 +292,8 @@ final public class PixelsStruct implements Writable
                 return new Text();
             case DATE:
                 return new DateWritable();
+            case TIMESTAMP:
+                return new TimestampWritable();
             case STRUCT:
             {
                 PixelsStruct result = new PixelsStruct(colIndexs.length);
@@ -277,6 +365,11 @@ final public class PixelsStruct implements Writable
         }
 
         PixelsStructInspector(StructTypeInfo info)
+        {
+            this(info, false);
+        }
+
+        PixelsStructInspector(StructTypeInfo info, boolean bytesView)
         {
             ArrayList<String> fieldNames = info.getAllStructFieldNames();
             ArrayList<TypeInfo> fieldTypes = info.getAllStructFieldTypeInfos();
@@ -284,7 +377,7 @@ final public class PixelsStruct implements Writable
             for (int i = 0; i < fieldNames.size(); ++i)
             {
                 fields.add(new Field(fieldNames.get(i),
-                        createObjectInspector(fieldTypes.get(i)), i));
+                        createObjectInspector(fieldTypes.get(i), bytesView), i));
             }
         }
 
@@ -334,7 +427,7 @@ final public class PixelsStruct implements Writable
                 return null;
             }
 
-            return struct.fields[offset];
+            return struct.getFieldValue(offset);
         }
 
         @Override
@@ -346,9 +439,9 @@ final public class PixelsStruct implements Writable
             }
             PixelsStruct struct = (PixelsStruct) object;
             List<Object> result = new ArrayList<>(struct.fields.length);
-            for (Object child : struct.fields)
+            for (int i = 0; i < struct.fields.length; ++i)
             {
-                result.add(child);
+                result.add(struct.getFieldValue(i));
             }
             return result;
         }
@@ -668,7 +761,156 @@ final public class PixelsStruct implements Writable
         }
     }
 
+    /**
+     * The object inspector of the string values that are read as {@link PixelsBytesView}.
+     * It also accepts {@link Text}, so that it works with the rows that are not read by pixels.
+     */
+    static class PixelsStringViewInspector extends AbstractPrimitiveObjectInspector
+            implements StringObjectInspector
+    {
+        PixelsStringViewInspector()
+        {
+            super(TypeInfoFactory.stringTypeInfo);
+        }
+
+        @Override
+        public Text getPrimitiveWritableObject(Object o)
+        {
+            if (o == null)
+            {
+                return null;
+            }
+            return o instanceof PixelsBytesView ? ((PixelsBytesView) o).getText() : (Text) o;
+        }
+
+        @Override
+        public String getPrimitiveJavaObject(Object o)
+        {
+            // decode from the view directly, without copying into a text.
+            return o == null ? null : o.toString();
+        }
+
+        @Override
+        public Object copyObject(Object o)
+        {
+            if (o == null)
+            {
+                return null;
+            }
+            if (o instanceof PixelsBytesView)
+            {
+                PixelsBytesView view = (PixelsBytesView) o;
+                Text text = new Text();
+                text.set(view.getBytes(), view.getStart(), view.getLength());
+                return text;
+            }
+            return new Text((Text) o);
+        }
+
+        @Override
+        public boolean preferWritable()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o != null && o.getClass() == getClass();
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return getClass().hashCode();
+        }
+    }
+
+    /**
+     * The object inspector of the binary values that are read as {@link PixelsBytesView}.
+     * It also accepts {@link BytesWritable}, so that it works with the rows that are not read by pixels.
+     */
+    static class PixelsBinaryViewInspector extends AbstractPrimitiveObjectInspector
+            implements BinaryObjectInspector
+    {
+        PixelsBinaryViewInspector()
+        {
+            super(TypeInfoFactory.binaryTypeInfo);
+        }
+
+        @Override
+        public BytesWritable getPrimitiveWritableObject(Object o)
+        {
+            if (o == null)
+            {
+                return null;
+            }
+            return o instanceof PixelsBytesView ? ((PixelsBytesView) o).getBinary() : (BytesWritable) o;
+        }
+
+        @Override
+        public byte[] getPrimitiveJavaObject(Object o)
+        {
+            if (o == null)
+            {
+                return null;
+            }
+            if (o instanceof PixelsBytesView)
+            {
+                return ((PixelsBytesView) o).copyBytes();
+            }
+            return ((BytesWritable) o).copyBytes();
+        }
+
+        @Override
+        public Object copyObject(Object o)
+        {
+            if (o == null)
+            {
+                return null;
+            }
+            if (o instanceof PixelsBytesView)
+            {
+                return new BytesWritable(((PixelsBytesView) o).copyBytes());
+            }
+            return new BytesWritable(((BytesWritable) o).copyBytes());
+        }
+
+        @Override
+        public boolean preferWritable()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o != null && o.getClass() == getClass();
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return getClass().hashCode();
+        }
+    }
+
+    private static final PixelsStringViewInspector stringViewInspector = new PixelsStringViewInspector();
+    private static final PixelsBinaryViewInspector binaryViewInspector = new PixelsBinaryViewInspector();
+
     static public ObjectInspector createObjectInspector(TypeInfo info)
+    {
+        return createObjectInspector(info, false);
+    }
+
+    /**
+     * Create the object inspector of the type.
+     *
+     * @param info the type info
+     * @param bytesView whether the string and binary values are read as {@link PixelsBytesView}
+     * @return the object inspector
+     */
+    static public ObjectInspector createObjectInspector(TypeInfo info, boolean bytesView)
     {
         switch (info.getCategory())
         {
@@ -690,9 +932,11 @@ final public class PixelsStruct implements Writable
                     case LONG:
                         return PrimitiveObjectInspectorFactory.writableLongObjectInspector;
                     case BINARY:
-                        return PrimitiveObjectInspectorFactory.writableBinaryObjectInspector;
+                        return bytesView ? binaryViewInspector :
+                                PrimitiveObjectInspectorFactory.writableBinaryObjectInspector;
                     case STRING:
-                        return PrimitiveObjectInspectorFactory.writableStringObjectInspector;
+                        return bytesView ? stringViewInspector :
+                                PrimitiveObjectInspectorFactory.writableStringObjectInspector;
                     case CHAR:
                         return PrimitiveObjectInspectorFactory.getPrimitiveWritableObjectInspector(
                                 (PrimitiveTypeInfo) info);
@@ -711,7 +955,7 @@ final public class PixelsStruct implements Writable
                                 ((PrimitiveTypeInfo) info).getPrimitiveCategory());
                 }
             case STRUCT:
-                return new PixelsStructInspector((StructTypeInfo) info);
+                return new PixelsStructInspector((StructTypeInfo) info, bytesView);
             case MAP:
                 return new PixelsMapObjectInspector((MapTypeInfo) info);
             case LIST:
@@ -0,0 +1,603 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.mapred;
+
+import io.pixelsdb.pixels.hive.PixelsSerDe;
+import io.pixelsdb.pixels.hive.common.PixelsConf;
+import io.pixelsdb.pixels.hive.common.PixelsMemoryManager;
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.FileSinkOperator;
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.hive.serde2.SerDeUtils;
+import org.apache.hadoop.hive.serde2.lazybinary.LazyBinarySerDe;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.BinaryObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.StringObjectInspector;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.hadoop.mapreduce.MRConfig;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The record writer of hive that clusters the rows by {@link PixelsConf#CLUSTER_COLUMNS}
+ * before they are written, so that the min/max statistics of the row groups are narrow
+ * enough to skip row groups on the cluster columns.
+ * <p>
+ * The rows are serialized and buffered up to {@link PixelsConf#CLUSTER_BUFFER_SIZE},
+ * which is registered in {@link PixelsMemoryManager} together with the pixels writers,
+ * and scaled down when the writers opened in the task oversubscribe the memory pool,
+ * which is checked on the thread writing the rows.
+ * When the buffer is full, the rows are sorted by the cluster columns or by the
+ * z-order value of the cluster columns, and written into the underlying
+ * {@link PixelsRollingRecordWriter}. If {@link PixelsConf#CLUSTER_SPILL_SIZE} is set,
+ * the sorted buffers are spilled to the local dirs of the task as sorted runs instead, and the runs
+ * are merged into the underlying writer at close, or when the spilled runs reach the
+ * spill size. Hence the memory and the local disk used by this writer are both bounded.
+ * </p>
+ * Created at: 2026-10-18
+ */
+public class PixelsClusteringRecordWriter implements FileSinkOperator.RecordWriter
+{
+    private static Logger log = LogManager.getLogger(PixelsClusteringRecordWriter.class);
+
+    /**
+     * The estimated memory overhead of a buffered row in bytes.
+     */
+    private static final int ROW_OVERHEAD = 64;
+    /**
+     * The types of the cluster columns that can be normalized for z-order.
+     */
+    private static final EnumSet<PrimitiveObjectInspector.PrimitiveCategory> ZORDER_TYPES = EnumSet.of(
+            PrimitiveObjectInspector.PrimitiveCategory.BOOLEAN, PrimitiveObjectInspector.PrimitiveCategory.BYTE,
+            PrimitiveObjectInspector.PrimitiveCategory.SHORT, PrimitiveObjectInspector.PrimitiveCategory.INT,
+            PrimitiveObjectInspector.PrimitiveCategory.LONG, PrimitiveObjectInspector.PrimitiveCategory.DATE,
+            PrimitiveObjectInspector.PrimitiveCategory.TIMESTAMP, PrimitiveObjectInspector.PrimitiveCategory.FLOAT,
+            PrimitiveObjectInspector.PrimitiveCategory.DOUBLE, PrimitiveObjectInspector.PrimitiveCategory.DECIMAL,
+            PrimitiveObjectInspector.PrimitiveCategory.STRING, PrimitiveObjectInspector.PrimitiveCategory.CHAR,
+            PrimitiveObjectInspector.PrimitiveCategory.VARCHAR, PrimitiveObjectInspector.PrimitiveCategory.BINARY);
+
+    private final PixelsRollingRecordWriter writer;
+    private final int[] clusterColumns;
+    private final boolean zOrder;
+    private final long bufferSize;
+    /**
+     * The buffer size scaled by the memory manager, and the scale it was computed by.
+     */
+    private long scaledBufferSize;
+    private double checkedScale;
+    private final PixelsMemoryManager memoryManager;
+    /**
+     * The key of the buffer in the memory manager.
+     */
+    private final Path memoryKey;
+    private final LocalDirAllocator localDirs = new LocalDirAllocator(MRConfig.LOCAL_DIR);
+    private final String runPrefix;
+    private final long spillSize;
+    private final Properties tableProperties;
+    private final JobConf conf;
+    /**
+     * The serde that serializes the buffered rows and deserializes them to be written.
+     */
+    private final LazyBinarySerDe serde;
+    private final StructObjectInspector serdeInspector;
+    private final Comparator<ClusteredRow> comparator;
+
+    private final List<ClusteredRow> buffer = new ArrayList<>();
+    private long bufferedBytes = 0;
+    private final List<File> runs = new ArrayList<>();
+    private long spilledBytes = 0;
+
+    /**
+     * A buffered row and its cluster key.
+     */
+    private static class ClusteredRow
+    {
+        private final byte[] bytes;
+        private final int length;
+        /**
+         * The values of the cluster columns in sort mode.
+         */
+        private final Object[] keys;
+        /**
+         * The z-order value of the cluster columns in zorder mode.
+         */
+        private final long zValue;
+
+        private ClusteredRow(byte[] bytes, int length, Object[] keys, long zValue)
+        {
+            this.bytes = bytes;
+            this.length = length;
+            this.keys = keys;
+            this.zValue = zValue;
+        }
+    }
+
+    /**
+     * @param conf the configuration of the task
+     * @param outPath the output path given by hive, it identifies the buffer of this writer
+     * @param tableProperties the table properties
+     * @param writer the underlying writer
+     * @throws IOException if the cluster mode or columns are illegal
+     */
+    public PixelsClusteringRecordWriter(JobConf conf, Path outPath, Properties tableProperties,
+                                        PixelsRollingRecordWriter writer) throws IOException
+    {
+        this.writer = writer;
+        this.conf = conf;
+        this.tableProperties = tableProperties;
+        this.bufferSize = PixelsConf.CLUSTER_BUFFER_SIZE.getLong(tableProperties, conf);
+        this.memoryManager = PixelsMemoryManager.getInstance(conf);
+        this.memoryKey = outPath.suffix(".cluster");
+        this.runPrefix = "pixels-cluster/" + outPath.getName() + "-";
+        this.spillSize = PixelsConf.CLUSTER_SPILL_SIZE.getLong(tableProperties, conf);
+
+        String mode = PixelsConf.CLUSTER_MODE.getString(tableProperties, conf).trim().toLowerCase();
+        switch (mode)
+        {
+            case "sort":
+                this.zOrder = false;
+                break;
+            case "zorder":
+                this.zOrder = true;
+                break;
+            default:
+                throw new IOException(PixelsConf.CLUSTER_MODE.getAttribute() + "=" + mode + " is illegal.");
+        }
+
+        final String columnNameDelimiter = tableProperties.containsKey(serdeConstants.COLUMN_NAME_DELIMITER) ?
+                tableProperties.getProperty(serdeConstants.COLUMN_NAME_DELIMITER) : String.valueOf(SerDeUtils.COMMA);
+        List<String> columnNames = Arrays.asList(
+                tableProperties.getProperty(serdeConstants.LIST_COLUMNS).toLowerCase().split(columnNameDelimiter));
+        List<TypeInfo> columnTypes = TypeInfoUtils.getTypeInfosFromTypeString(
+                tableProperties.getProperty(serdeConstants.LIST_COLUMN_TYPES));
+        String[] names = PixelsConf.CLUSTER_COLUMNS.getString(tableProperties, conf).split(",");
+        this.clusterColumns = new int[names.length];
+        for (int i = 0; i < names.length; ++i)
+        {
+            int index = columnNames.indexOf(names[i].trim().toLowerCase());
+            if (index < 0)
+            {
+                throw new IOException("cluster column '" + names[i] + "' is not found in " + columnNames);
+            }
+            TypeInfo type = columnTypes.get(index);
+            if (zOrder && (type.getCategory() != ObjectInspector.Category.PRIMITIVE ||
+                    !ZORDER_TYPES.contains(((PrimitiveTypeInfo) type).getPrimitiveCategory())))
+            {
+                throw new IOException("cluster column '" + names[i] + "' of type " + type.getTypeName() +
+                        " is not supported in zorder mode");
+            }
+            this.clusterColumns[i] = index;
+        }
+
+        this.serde = createSerDe();
+        try
+        {
+            this.serdeInspector = (StructObjectInspector) serde.getObjectInspector();
+        } catch (SerDeException e)
+        {
+            throw new IOException("failed to get the object inspector of the cluster buffer", e);
+        }
+        this.comparator = zOrder ?
+                (r1, r2) -> Long.compareUnsigned(r1.zValue, r2.zValue) :
+                createKeyComparator(serdeInspector, clusterColumns);
+        this.checkedScale = memoryManager.getAllocationScale();
+        this.scaledBufferSize = Math.round(bufferSize * checkedScale);
+        // the scale changed by registering the buffer is checked at the first row.
+        this.memoryManager.addWriter(memoryKey, bufferSize);
+    }
+
+    private LazyBinarySerDe createSerDe() throws IOException
+    {
+        try
+        {
+            LazyBinarySerDe serde = new LazyBinarySerDe();
+            serde.initialize(conf, tableProperties);
+            return serde;
+        } catch (SerDeException e)
+        {
+            throw new IOException("failed to initialize the serde of the cluster buffer", e);
+        }
+    }
+
+    private static Comparator<ClusteredRow> createKeyComparator(StructObjectInspector inspector,
+                                                                int[] clusterColumns)
+    {
+        List<? extends StructField> fields = inspector.getAllStructFieldRefs();
+        ObjectInspector[] keyInspectors = new ObjectInspector[clusterColumns.length];
+        for (int i = 0; i < clusterColumns.length; ++i)
+        {
+            keyInspectors[i] = ObjectInspectorUtils.getStandardObjectInspector(
+                    fields.get(clusterColumns[i]).getFieldObjectInspector(),
+                    ObjectInspectorUtils.ObjectInspectorCopyOption.WRITABLE);
+        }
+        return (r1, r2) ->
+        {
+            for (int i = 0; i < keyInspectors.length; ++i)
+            {
+                // nulls are ordered first.
+                int c = ObjectInspectorUtils.compare(r1.keys[i], keyInspectors[i],
+                        r2.keys[i], keyInspectors[i]);
+                if (c != 0)
+                {
+                    return c;
+                }
+            }
+            return 0;
+        };
+    }
+
+    /**
+     * Create the buffered row from a row that is accessed by the object inspector.
+     *
+     * @param inspector the object inspector of the row
+     * @param realRow the row
+     * @param bytes the serialized row, it is kept by the buffered row
+     * @param length the length of the serialized row
+     * @return the buffered row
+     */
+    private ClusteredRow createRow(StructObjectInspector inspector, Object realRow,
+                                   byte[] bytes, int length)
+    {
+        List<? extends StructField> fields = inspector.getAllStructFieldRefs();
+        if (zOrder)
+        {
+            long[] normalized = new long[clusterColumns.length];
+            for (int i = 0; i < clusterColumns.length; ++i)
+            {
+                StructField field = fields.get(clusterColumns[i]);
+                normalized[i] = normalize(inspector.getStructFieldData(realRow, field),
+                        (PrimitiveObjectInspector) field.getFieldObjectInspector());
+            }
+            return new ClusteredRow(bytes, length, null, interleave(normalized));
+        }
+        Object[] keys = new Object[clusterColumns.length];
+        for (int i = 0; i < clusterColumns.length; ++i)
+        {
+            StructField field = fields.get(clusterColumns[i]);
+            keys[i] = ObjectInspectorUtils.copyToStandardObject(
+                    inspector.getStructFieldData(realRow, field), field.getFieldObjectInspector(),
+                    ObjectInspectorUtils.ObjectInspectorCopyOption.WRITABLE);
+        }
+        return new ClusteredRow(bytes, length, keys, 0);
+    }
+
+    /**
+     * Map the value into an unsigned long, so that the order of the unsigned longs
+     * is consistent with the order of the values. Strings and binaries are ordered
+     * by their first 8 bytes.
+     *
+     * @param value the value, may be null
+     * @param inspector the object inspector of the value
+     * @return the normalized value, 0 for null
+     */
+    static long normalize(Object value, PrimitiveObjectInspector inspector)
+    {
+        if (value == null)
+        {
+            return 0L;
+        }
+        switch (inspector.getPrimitiveCategory())
+        {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                return PrimitiveObjectInspectorUtils.getLong(value, inspector) ^ Long.MIN_VALUE;
+            case DATE:
+                return PrimitiveObjectInspectorUtils.getDate(value, inspector).getTime() ^ Long.MIN_VALUE;
+            case TIMESTAMP:
+                return PrimitiveObjectInspectorUtils.getTimestamp(value, inspector).getTime() ^ Long.MIN_VALUE;
+            case FLOAT:
+            case DOUBLE:
+            case DECIMAL:
+            {
+                long bits = Double.doubleToLongBits(PrimitiveObjectInspectorUtils.getDouble(value, inspector));
+                // flip all the bits of negative values and the sign bit of positive values.
+                return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+            }
+            case STRING:
+            {
+                Text text = ((StringObjectInspector) inspector).getPrimitiveWritableObject(value);
+                return prefix(text.getBytes(), text.getLength());
+            }
+            case CHAR:
+            case VARCHAR:
+            {
+                byte[] bytes = PrimitiveObjectInspectorUtils.getString(value, inspector)
+                        .getBytes(StandardCharsets.UTF_8);
+                return prefix(bytes, bytes.length);
+            }
+            case BINARY:
+            {
+                BytesWritable bytes = ((BinaryObjectInspector) inspector).getPrimitiveWritableObject(value);
+                return prefix(bytes.getBytes(), bytes.getLength());
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported cluster column type " +
+                        inspector.getTypeName());
+        }
+    }
+
+    private static long prefix(byte[] bytes, int length)
+    {
+        long result = 0L;
+        for (int i = 0; i < Long.BYTES; ++i)
+        {
+            result <<= 8;
+            if (i < length)
+            {
+                result |= bytes[i] & 0xFF;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Interleave the most significant bits of the normalized values into a z-order value.
+     *
+     * @param normalized the normalized values of the cluster columns
+     * @return the z-order value, compared as an unsigned long
+     */
+    static long interleave(long[] normalized)
+    {
+        int bitsPerColumn = Long.SIZE / normalized.length;
+        long result = 0L;
+        for (int bit = 0; bit < bitsPerColumn; ++bit)
+        {
+            for (long value : normalized)
+            {
+                result = (result << 1) | ((value >>> (Long.SIZE - 1 - bit)) & 1L);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void write(Writable w) throws IOException
+    {
+        PixelsSerDe.PixelsRow row = (PixelsSerDe.PixelsRow) w;
+        StructObjectInspector inspector = (StructObjectInspector) row.getInspector();
+        BytesWritable serialized;
+        try
+        {
+            serialized = (BytesWritable) serde.serialize(row.getRow(), inspector);
+        } catch (SerDeException e)
+        {
+            throw new IOException("failed to buffer the row", e);
+        }
+        int length = serialized.getLength();
+        buffer.add(createRow(inspector, row.getRow(),
+                Arrays.copyOf(serialized.getBytes(), length), length));
+        bufferedBytes += length + ROW_OVERHEAD;
+        double scale = memoryManager.getAllocationScale();
+        if (scale != checkedScale)
+        {
+            checkedScale = scale;
+            scaledBufferSize = Math.round(bufferSize * scale);
+        }
+        if (bufferedBytes >= scaledBufferSize)
+        {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Sort the buffered rows, and write them into the underlying writer,
+     * or spill them as a sorted run if spilling is enabled.
+     */
+    private void flushBuffer() throws IOException
+    {
+        if (buffer.isEmpty())
+        {
+            return;
+        }
+        buffer.sort(comparator);
+        if (spillSize <= 0)
+        {
+            BytesWritable bytes = new BytesWritable();
+            for (ClusteredRow row : buffer)
+            {
+                bytes.set(row.bytes, 0, row.length);
+                writer.write(serdeInspector, deserialize(serde, bytes));
+            }
+        } else
+        {
+            if (spilledBytes + bufferedBytes > spillSize && !runs.isEmpty())
+            {
+                // the local disk is bounded, merge the existing runs out.
+                mergeRuns();
+            }
+            spill();
+        }
+        buffer.clear();
+        bufferedBytes = 0;
+    }
+
+    private void spill() throws IOException
+    {
+        // the runs are in the local dirs of the task, which are cleaned up with the task.
+        File run = new File(localDirs.getLocalPathForWrite(runPrefix + runs.size() + ".run",
+                bufferedBytes, conf).toUri().getPath());
+        if (!run.getParentFile().isDirectory() && !run.getParentFile().mkdirs())
+        {
+            throw new IOException("failed to create the directory of the sorted run " + run);
+        }
+        runs.add(run);
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(run))))
+        {
+            for (ClusteredRow row : buffer)
+            {
+                output.writeInt(row.length);
+                output.write(row.bytes, 0, row.length);
+            }
+        }
+        spilledBytes += run.length();
+        log.debug("spill " + buffer.size() + " rows into the sorted run " + run);
+    }
+
+    private static Object deserialize(LazyBinarySerDe serde, BytesWritable bytes) throws IOException
+    {
+        try
+        {
+            return serde.deserialize(bytes);
+        } catch (SerDeException e)
+        {
+            throw new IOException("failed to read the buffered row", e);
+        }
+    }
+
+    /**
+     * The reader of a sorted run, it holds the current row of the run.
+     */
+    private class RunReader implements Closeable
+    {
+        private final DataInputStream input;
+        /**
+         * Each run has its own serde, as the deserialized row is reused by the serde.
+         */
+        private final LazyBinarySerDe runSerDe;
+        private final BytesWritable bytes = new BytesWritable();
+        private Object current;
+        private ClusteredRow currentRow;
+
+        private RunReader(File run) throws IOException
+        {
+            this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(run)));
+            this.runSerDe = createSerDe();
+        }
+
+        private boolean next() throws IOException
+        {
+            int length;
+            try
+            {
+                length = input.readInt();
+            } catch (EOFException e)
+            {
+                return false;
+            }
+            bytes.setSize(length);
+            input.readFully(bytes.getBytes(), 0, length);
+            current = deserialize(runSerDe, bytes);
+            currentRow = createRow(serdeInspector, current, null, length);
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            input.close();
+        }
+    }
+
+    /**
+     * Merge the sorted runs into the underlying writer, and delete the runs.
+     */
+    private void mergeRuns() throws IOException
+    {
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, runs.size()),
+                (r1, r2) -> comparator.compare(r1.currentRow, r2.currentRow));
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        try
+        {
+            for (File run : runs)
+            {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                if (reader.next())
+                {
+                    queue.add(reader);
+                }
+            }
+            while (!queue.isEmpty())
+            {
+                RunReader reader = queue.poll();
+                writer.write(serdeInspector, reader.current);
+                if (reader.next())
+                {
+                    queue.add(reader);
+                }
+            }
+        } finally
+        {
+            for (RunReader reader : readers)
+            {
+                reader.close();
+            }
+            deleteRuns();
+        }
+    }
+
+    private void deleteRuns()
+    {
+        for (File run : runs)
+        {
+            if (run.exists() && !run.delete())
+            {
+                log.warn("failed to delete the sorted run " + run);
+            }
+        }
+        runs.clear();
+        spilledBytes = 0;
+    }
+
+    @Override
+    public void close(boolean abort) throws IOException
+    {
+        try
+        {
+            if (abort)
+            {
+                buffer.clear();
+                writer.close(true);
+                return;
+            }
+            flushBuffer();
+            if (!runs.isEmpty())
+            {
+                mergeRuns();
+            }
+            writer.close(false);
+        } finally
+        {
+            deleteRuns();
+            memoryManager.removeWriter(memoryKey);
+        }
+    }
+}
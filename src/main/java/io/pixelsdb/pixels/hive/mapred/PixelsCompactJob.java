@@ -0,0 +1,328 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.mapred;
+
+import com.alibaba.fastjson.JSON;
+import io.pixelsdb.pixels.common.metadata.SchemaTableName;
+import io.pixelsdb.pixels.common.metadata.domain.Compact;
+import io.pixelsdb.pixels.common.metadata.domain.Layout;
+import io.pixelsdb.pixels.core.compactor.CompactLayout;
+import io.pixelsdb.pixels.core.compactor.PixelsCompactor;
+import io.pixelsdb.pixels.daemon.MetadataProto;
+import io.pixelsdb.pixels.hive.common.HDFSLog;
+import io.pixelsdb.pixels.hive.common.PixelsBloomFilterIndex;
+import io.pixelsdb.pixels.hive.common.PixelsConf;
+import io.pixelsdb.pixels.hive.common.PixelsMetadata;
+import io.pixelsdb.pixels.storage.hdfs.HDFS;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.conf.Configured;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.LongWritable;
+import org.apache.hadoop.io.NullWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapred.*;
+import org.apache.hadoop.mapred.lib.NLineInputFormat;
+import org.apache.hadoop.util.Tool;
+import org.apache.hadoop.util.ToolRunner;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A MapReduce job that compacts the ordered files of a pixels table into compact files.
+ * <p>
+ * The ordered files of the latest writable layout are grouped so that each group
+ * contains the number of row groups in a compact file. Each map task compacts a
+ * group by {@link PixelsCompactor}, which copies the encoded column chunks into the
+ * compact file in the column chunk order of the layout, without decoding them.
+ * After the job succeeds, the compact files are registered and the compacted ordered
+ * files are removed from pixels metadata in one transaction.
+ * </p>
+ * Usage:
+ * <pre>
+ * hadoop jar pixels-hive-full.jar io.pixelsdb.pixels.hive.mapred.PixelsCompactJob \
+ *   [-D pixels.compact.groups.per.task=1] [-D pixels.compact.delete.ordered=false] \
+ *   schema_name.table_name work_dir
+ * </pre>
+ * The input and output of the job are written into a new sub-directory of work_dir,
+ * which is removed after the job succeeds.
+ * Created at: 2026-10-18
+ */
+public class PixelsCompactJob extends Configured implements Tool
+{
+    private static Logger log = LogManager.getLogger(PixelsCompactJob.class);
+
+    public static final String GROUPS_PER_TASK = "pixels.compact.groups.per.task";
+    public static final String DELETE_ORDERED = "pixels.compact.delete.ordered";
+    private static final String COMPACT_LAYOUT = "pixels.compact.layout";
+
+    /**
+     * Compacts the group of ordered files in each input line, the format of the line is:
+     * group id, compact file uri, compact path id, and the comma separated ordered file uris.
+     */
+    public static class CompactMapper extends MapReduceBase
+            implements Mapper<LongWritable, Text, Text, NullWritable>
+    {
+        private JobConf conf;
+        private Compact compact;
+
+        @Override
+        public void configure(JobConf job)
+        {
+            this.conf = job;
+            this.compact = JSON.parseObject(job.get(COMPACT_LAYOUT), Compact.class);
+        }
+
+        @Override
+        public void map(LongWritable key, Text value, OutputCollector<Text, NullWritable> output,
+                        Reporter reporter) throws IOException
+        {
+            String[] tokens = value.toString().split("\t");
+            String groupId = tokens[0];
+            Path target = new Path(tokens[1]);
+            String pathId = tokens[2];
+            List<String> sourcePaths = Arrays.asList(tokens[3].split(","));
+
+            FileSystem fs = target.getFileSystem(conf);
+            if (fs.exists(target))
+            {
+                // written by a failed attempt.
+                fs.delete(target, false);
+            }
+            HDFS storage = new HDFS(fs, conf);
+            PixelsCompactor compactor = PixelsCompactor.newBuilder()
+                    .setSourcePaths(sourcePaths)
+                    .setCompactLayout(CompactLayout.fromCompact(compact))
+                    .setInputStorage(storage)
+                    .setOutputStorage(storage)
+                    .setPath(target.toString())
+                    .setBlockSize(PixelsConf.BLOCK_SIZE.getLong(conf))
+                    .setReplication((short) PixelsConf.BLOCK_REPLICATION.getLong(conf))
+                    .setBlockPadding(PixelsConf.BLOCK_PADDING.getBoolean(conf))
+                    .build();
+            try
+            {
+                compactor.compact();
+            } finally
+            {
+                // release the output stream and its lease on the target even if the compaction failed,
+                // so that the next attempt can recreate the target.
+                compactor.close();
+            }
+            reporter.progress();
+
+            output.collect(new Text(groupId + "\t" + pathId + "\t" + target.getName() + "\t" +
+                    compact.getNumRowGroupInFile()), NullWritable.get());
+        }
+    }
+
+    @Override
+    public int run(String[] args) throws Exception
+    {
+        if (args.length != 2)
+        {
+            System.err.println("Usage: PixelsCompactJob [-D options] schema_name.table_name work_dir");
+            return 1;
+        }
+        Configuration conf = getConf();
+        conf.set(PixelsMetadata.BIND_PIXELS_TABLE, args[0]);
+        SchemaTableName st = PixelsMetadata.getBindTable(null, conf);
+        Path workDir = new Path(args[1]);
+
+        Layout layout = PixelsMetadata.getWritableLayout(st);
+        Compact compact = layout.getCompact();
+        int numRowGroupInFile = compact.getNumRowGroupInFile();
+        List<io.pixelsdb.pixels.common.metadata.domain.Path> compactPaths = layout.getCompactPaths();
+        if (compactPaths == null || compactPaths.isEmpty())
+        {
+            throw new IOException("layout " + layout.getVersion() + " of table " + st +
+                    " does not have any compact path");
+        }
+        Map<Long, String> orderedUris = new HashMap<>();
+        for (io.pixelsdb.pixels.common.metadata.domain.Path orderedPath : layout.getOrderedPaths())
+        {
+            String base = orderedPath.getUri();
+            orderedUris.put(orderedPath.getId(), base.endsWith("/") ? base : base + "/");
+        }
+
+        // group the ordered files, each group fills a compact file.
+        List<List<MetadataProto.File>> groups = new ArrayList<>();
+        List<MetadataProto.File> group = new ArrayList<>();
+        int numRowGroupInGroup = 0;
+        // the ordered files that are left uncompacted.
+        int numLeftFiles = 0;
+        for (MetadataProto.File file : PixelsMetadata.getFiles(layout.getOrderedPaths()))
+        {
+            int numRowGroup = Math.max(1, file.getNumRowGroup());
+            if (numRowGroupInGroup + numRowGroup > numRowGroupInFile)
+            {
+                // the compact layout requires exactly numRowGroupInFile row groups.
+                numLeftFiles += group.size();
+                group = new ArrayList<>();
+                numRowGroupInGroup = 0;
+                if (numRowGroup > numRowGroupInFile)
+                {
+                    numLeftFiles++;
+                    continue;
+                }
+            }
+            group.add(file);
+            numRowGroupInGroup += numRowGroup;
+            if (numRowGroupInGroup == numRowGroupInFile)
+            {
+                groups.add(group);
+                group = new ArrayList<>();
+                numRowGroupInGroup = 0;
+            }
+        }
+        numLeftFiles += group.size();
+        if (numLeftFiles > 0)
+        {
+            log.info(numLeftFiles + " ordered files do not fill a compact file of " + numRowGroupInFile +
+                    " row groups, they are left for the next compaction");
+        }
+        if (groups.isEmpty())
+        {
+            log.info("there are not enough ordered files to fill a compact file of " +
+                    numRowGroupInFile + " row groups");
+            return 0;
+        }
+
+        // write the groups as the input of the job, in a new sub-directory of the work dir.
+        FileSystem fs = workDir.getFileSystem(conf);
+        long timestamp = System.currentTimeMillis();
+        Path jobDir = new Path(workDir, "pixels_compact_" + timestamp);
+        Path groupsPath = new Path(jobDir, "groups");
+        Path outputPath = new Path(jobDir, "output");
+        String filePrefix = timestamp + "_compact_";
+        try (BufferedWriter writer = HDFSLog.getLogWriter(fs, groupsPath.toString()))
+        {
+            for (int i = 0; i < groups.size(); ++i)
+            {
+                io.pixelsdb.pixels.common.metadata.domain.Path compactPath =
+                        compactPaths.get(i % compactPaths.size());
+                StringBuilder builder = new StringBuilder();
+                builder.append(i).append('\t')
+                        .append(new Path(compactPath.getUri(), filePrefix + i + ".pxl")).append('\t')
+                        .append(compactPath.getId()).append('\t');
+                boolean first = true;
+                for (MetadataProto.File file : groups.get(i))
+                {
+                    if (first)
+                    {
+                        first = false;
+                    } else
+                    {
+                        builder.append(',');
+                    }
+                    builder.append(orderedUris.get(file.getPathId())).append(file.getName());
+                }
+                writer.write(builder.toString());
+                writer.newLine();
+            }
+        }
+
+        JobConf job = new JobConf(conf, PixelsCompactJob.class);
+        job.setJobName("pixels compaction " + st);
+        job.set(COMPACT_LAYOUT, JSON.toJSONString(compact));
+        job.setInputFormat(NLineInputFormat.class);
+        job.setInt("mapreduce.input.lineinputformat.linespermap", conf.getInt(GROUPS_PER_TASK, 1));
+        job.setMapperClass(CompactMapper.class);
+        job.setNumReduceTasks(0);
+        // the compactor makes progress by row groups, do not retry a running task too early.
+        job.setMapSpeculativeExecution(false);
+        job.setOutputFormat(TextOutputFormat.class);
+        job.setOutputKeyClass(Text.class);
+        job.setOutputValueClass(NullWritable.class);
+        FileInputFormat.setInputPaths(job, groupsPath);
+        FileOutputFormat.setOutputPath(job, outputPath);
+
+        RunningJob runningJob = JobClient.runJob(job);
+        if (!runningJob.isSuccessful())
+        {
+            log.error("compaction job failed, pixels metadata is not changed, the job files are kept in " + jobDir);
+            return 1;
+        }
+
+        // switch the metadata of the compacted groups.
+        List<MetadataProto.File> compactFiles = new ArrayList<>();
+        List<Long> orderedFileIds = new ArrayList<>();
+        List<String> orderedFiles = new ArrayList<>();
+        for (FileStatus status : fs.listStatus(outputPath))
+        {
+            if (!status.getPath().getName().startsWith("part-"))
+            {
+                continue;
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    fs.open(status.getPath()), StandardCharsets.UTF_8)))
+            {
+                String line;
+                while ((line = reader.readLine()) != null)
+                {
+                    String[] tokens = line.split("\t");
+                    compactFiles.add(MetadataProto.File.newBuilder()
+                            .setPathId(Long.parseLong(tokens[1]))
+                            .setName(tokens[2])
+                            .setNumRowGroup(Integer.parseInt(tokens[3])).build());
+                    for (MetadataProto.File file : groups.get(Integer.parseInt(tokens[0])))
+                    {
+                        orderedFileIds.add(file.getId());
+                        orderedFiles.add(orderedUris.get(file.getPathId()) + file.getName());
+                    }
+                }
+            }
+        }
+        PixelsMetadata.replaceFiles(compactFiles, orderedFileIds);
+        log.info("compacted " + orderedFileIds.size() + " ordered files into " +
+                compactFiles.size() + " compact files");
+
+        if (conf.getBoolean(DELETE_ORDERED, false))
+        {
+            for (String orderedFile : orderedFiles)
+            {
+                Path path = new Path(orderedFile);
+                FileSystem orderedFs = path.getFileSystem(conf);
+                if (!orderedFs.delete(path, false))
+                {
+                    log.warn("failed to delete the compacted ordered file " + path);
+                }
+                // the compact files do not have bloom filters.
+                orderedFs.delete(PixelsBloomFilterIndex.getIndexPath(path), false);
+            }
+        }
+        // only delete the files of this job, the work dir is given by the user.
+        fs.delete(jobDir, true);
+        return 0;
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        System.exit(ToolRunner.run(new Configuration(), new PixelsCompactJob(), args));
+    }
+}
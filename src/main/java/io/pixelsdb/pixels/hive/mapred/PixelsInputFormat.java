@@ -19,31 +19,25 @@
  */
 package io.pixelsdb.pixels.hive.mapred;
 
-import com.google.common.collect.ImmutableList;
-import io.etcd.jetcd.KeyValue;
-import io.pixelsdb.pixels.cache.PixelsCacheUtil;
-import io.pixelsdb.pixels.common.layout.*;
 import io.pixelsdb.pixels.common.metadata.SchemaTableName;
-import io.pixelsdb.pixels.common.metadata.domain.*;
-import io.pixelsdb.pixels.common.utils.ConfigFactory;
-import io.pixelsdb.pixels.common.utils.Constants;
-import io.pixelsdb.pixels.common.utils.EtcdUtil;
 import io.pixelsdb.pixels.core.PixelsReader;
-import io.pixelsdb.pixels.daemon.MetadataProto;
-import io.pixelsdb.pixels.daemon.metadata.dao.*;
+import io.pixelsdb.pixels.hive.common.PixelsBloomFilterIndex;
+import io.pixelsdb.pixels.hive.common.PixelsConf;
+import io.pixelsdb.pixels.hive.common.PixelsMetadata;
 import io.pixelsdb.pixels.hive.common.PixelsRW;
 import io.pixelsdb.pixels.hive.common.PixelsSplit;
 import io.pixelsdb.pixels.hive.common.PixelsStruct;
-import io.pixelsdb.pixels.storage.hdfs.HDFS;
 import org.apache.hadoop.fs.FileSystem;
-import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.ql.exec.Operator;
 import org.apache.hadoop.hive.ql.exec.TableScanOperator;
 import org.apache.hadoop.hive.ql.exec.Utilities;
 import org.apache.hadoop.hive.ql.exec.spark.SparkDynamicPartitionPruner;
 import org.apache.hadoop.hive.ql.io.HiveInputFormat;
+import org.apache.hadoop.hive.ql.io.sarg.ConvertAstToSearchArg;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
 import org.apache.hadoop.hive.ql.plan.MapWork;
+import org.apache.hadoop.hive.ql.plan.PartitionDesc;
 import org.apache.hadoop.hive.serde2.ColumnProjectionUtils;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapred.*;
@@ -52,14 +46,10 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Properties;
 import java.util.concurrent.TimeUnit;
 
-import static com.google.common.base.Preconditions.checkArgument;
 import static org.apache.hadoop.hive.serde2.ColumnProjectionUtils.*;
 
 /**
@@ -114,7 +104,7 @@ public class PixelsInputFormat
 
         PixelsRW.ReaderOptions options = PixelsRW.readerOptions(conf, split);
         PixelsReader reader = PixelsRW.createReader(split.getPath(), options);
-        return new PixelsMapredRecordReader(reader, options);
+        return new PixelsMapredRecordReader(reader, options, reporter);
     }
 
     /**
@@ -136,251 +126,16 @@ public class PixelsInputFormat
         // before anything is done.
         init(job);
 
-        HDFS hdfs = new HDFS(FileSystem.get(job), job);
+        FileSystem fs = FileSystem.get(job);
+        // the filter pushed down by hive, it is used to skip row groups by bloom filters.
+        SearchArgument sarg = ConvertAstToSearchArg.createFromConf(job);
         String[] includedColumns = ColumnProjectionUtils.getReadColumnNames(job);
-        ConfigFactory config = ConfigFactory.Instance();
-        boolean cacheEnabled = Boolean.parseBoolean(config.getProperty("cache.enabled"));
-        boolean projectionReadEnabled = Boolean.parseBoolean(config.getProperty("projection.read.enabled"));
-        int fixedSplitSize = Integer.parseInt(config.getProperty("fixed.split.size"));
-        FileDao fileDao = DaoFactory.Instance().getFileDao();
-
-        /**
-         * Issue #78:
-         * Only try to use cache for the cached table.
-         */
-        String cacheSchema = null;
-        String cacheTable = null;
-        KeyValue keyValue = EtcdUtil.Instance().getKeyValue(Constants.LAYOUT_VERSION_LITERAL);
-        if (keyValue != null)
-        {
-            String value = keyValue.getValue().toString(StandardCharsets.UTF_8);
-            // PIXELS-636: get schema and table name from etcd instead of config file.
-            String[] splits = value.split(":");
-            checkArgument(splits.length == 2, "invalid value for key '" +
-                    Constants.LAYOUT_VERSION_LITERAL + "' in etcd: " + value);
-            SchemaTableName schemaTableName = new SchemaTableName(splits[0]);
-            cacheSchema = schemaTableName.getSchemaName();
-            cacheTable = schemaTableName.getTableName();
-        }
-
-        boolean usingCache = false;
-        if (cacheEnabled)
+        PixelsSplitPlanner planner = createSplitPlanner(fs, job);
+        planner.setBloomFilterColumns(getBloomFilterColumns(job));
+        List<PixelsSplit> pixelsSplits = planner.plan(st, includedColumns, sarg, fs, numSplits);
+        if (pixelsSplits == null)
         {
-            if (st.getSchemaName().equalsIgnoreCase(cacheSchema) &&
-                    st.getTableName().equalsIgnoreCase(cacheTable))
-            {
-                usingCache = true;
-            }
-        }
-
-        List<Layout> layouts = getLayouts(st);
-
-        numSplits = numSplits == 0 ? 1 : numSplits;
-        // generate splits
-        ArrayList<PixelsSplit> pixelsSplits = new ArrayList<>(numSplits);
-
-        for (Layout layout : layouts)
-        {
-            // get index
-            long version = layout.getVersion();
-            SchemaTableName schemaTableName = new SchemaTableName(st.getSchemaName(), st.getTableName());
-            Ordered ordered = layout.getOrdered();
-            ColumnSet columnSet = new ColumnSet();
-            for (String columnName : includedColumns)
-            {
-                columnSet.addColumn(columnName);
-            }
-
-            // get split size
-            int splitSize;
-            Splits splits = layout.getSplits();
-            if (fixedSplitSize > 0)
-            {
-                splitSize = fixedSplitSize;
-            }
-            else
-            {
-                SplitsIndex splitsIndex = IndexFactory.Instance().getSplitsIndex(schemaTableName);
-                if (splitsIndex == null)
-                {
-                    log.debug("splits index not exist in factory, building index...");
-                    splitsIndex = buildSplitsIndex(version, ordered, splits, schemaTableName);
-                }
-                else
-                {
-                    long indexVersion = splitsIndex.getVersion();
-                    if (indexVersion < version) {
-                        log.debug("splits index is expired, building new index...");
-                        splitsIndex = buildSplitsIndex(version, ordered, splits, schemaTableName);
-                    }
-                }
-
-                SplitPattern bestSplitPattern = splitsIndex.search(columnSet);
-                splitSize = bestSplitPattern.getSplitSize();
-            }
-            log.error("using split size: " + splitSize);
-            int rowGroupNum = splits.getNumRowGroupInFile();
-
-            // get compact paths
-            List<io.pixelsdb.pixels.common.metadata.domain.Path> compactPaths;
-            if (projectionReadEnabled)
-            {
-                ProjectionsIndex projectionsIndex = IndexFactory.Instance().getProjectionsIndex(schemaTableName);
-                Projections projections = layout.getProjections();
-                if (projectionsIndex == null)
-                {
-                    log.debug("projections index not exist in factory, building index...");
-                    projectionsIndex = buildProjectionsIndex(ordered, projections, schemaTableName);
-                }
-                else
-                {
-                    int indexVersion = projectionsIndex.getVersion();
-                    if (indexVersion < version)
-                    {
-                        log.debug("projections index is not up-to-date, updating index...");
-                        projectionsIndex = buildProjectionsIndex(ordered, projections, schemaTableName);
-                    }
-                }
-                ProjectionPattern projectionPattern = projectionsIndex.search(columnSet);
-                if (projectionPattern != null)
-                {
-                    log.debug("suitable projection pattern is found");
-                    long[] projectionPathIds = projectionPattern.getPathIds();
-                    Map<Long, io.pixelsdb.pixels.common.metadata.domain.Path> projectionPaths = layout.getProjectionPaths();
-                    compactPaths = new ArrayList<>(projectionPathIds.length);
-                    for (long projectionPathId : projectionPathIds)
-                    {
-                        compactPaths.add(projectionPaths.get(projectionPathId));
-                    }
-                }
-                else
-                {
-                    compactPaths = layout.getCompactPaths();
-                }
-            }
-            else
-            {
-                compactPaths = layout.getCompactPaths();
-            }
-
-            if(usingCache)
-            {
-                Compact compact = layout.getCompact();
-                int cacheBorder = compact.getCacheBorder();
-                List<String> cacheColumnChunkOrders = compact.getColumnChunkOrder().subList(0, cacheBorder);
-                String cacheVersion;
-                EtcdUtil etcdUtil = EtcdUtil.Instance();
-                keyValue = etcdUtil.getKeyValue(Constants.CACHE_VERSION_LITERAL);
-                if(keyValue != null)
-                {
-                    // 1. get version
-                    cacheVersion = keyValue.getValue().toString(StandardCharsets.UTF_8);
-                    log.debug("cache version: " + cacheVersion);
-                    // 2. get files of each node
-                    List<KeyValue> nodeFiles = etcdUtil.getKeyValuesByPrefix(Constants.CACHE_LOCATION_LITERAL + cacheVersion);
-                    if(!nodeFiles.isEmpty())
-                    {
-                        Map<String, String> fileLocations = new HashMap<>();
-                        for (KeyValue kv : nodeFiles)
-                        {
-                            String node = PixelsCacheUtil.getHostnameFromCacheLocationLiteral(
-                                    kv.getKey().toString(StandardCharsets.UTF_8));
-                            String[] files = kv.getValue().toString(StandardCharsets.UTF_8).split(";");
-                            for(String file : files)
-                            {
-                                fileLocations.put(file, node);
-                            }
-                        }
-                        try
-                        {
-                            // 3. add splits in orderedPaths
-                            List<String> orderedPaths = getFilePaths(layout.getOrderedPaths(), fileDao);
-                            for (String path : orderedPaths)
-                            {
-                                long fileLength = hdfs.getStatus(path).getLength();
-                                String[] hosts = hdfs.getHosts(path);
-                                PixelsSplit pixelsSplit = new PixelsSplit(
-                                        new Path(path), 0, 1, false,
-                                        new ArrayList<>(0), ordered.getColumnOrder(), fileLength, hosts);
-                                pixelsSplits.add(pixelsSplit);
-                            }
-                            // 4. add splits in compactPaths
-                            int curFileRGIdx;
-                            for (String path : getFilePaths(compactPaths, fileDao))
-                            {
-                                long fileLength = hdfs.getStatus(path).getLength();
-                                curFileRGIdx = 0;
-                                while (curFileRGIdx < rowGroupNum)
-                                {
-                                    String node = fileLocations.get(path.toString());
-                                    String[] hosts = {node};
-                                    PixelsSplit pixelsSplit = new PixelsSplit(new Path(path), curFileRGIdx, splitSize,
-                                            true, cacheColumnChunkOrders, ordered.getColumnOrder(),
-                                            fileLength, hosts);
-                                    pixelsSplits.add(pixelsSplit);
-                                    curFileRGIdx += splitSize;
-                                }
-                            }
-                        }
-                        catch (IOException e)
-                        {
-                            log.error("Failed to open or read HDFS file.", e);
-                            return null;
-                        }
-                    }
-                    else
-                    {
-                        log.error("Get caching files error when version is " + cacheVersion);
-                        return null;
-                    }
-                }
-                else
-                {
-                    log.error("pixels cache version not found.");
-                    return null;
-                }
-            }
-            else
-            {
-                log.debug("cache is disabled");
-                List<String> orderedFilePaths;
-                List<String> compactFilePaths;
-                try
-                {
-                    orderedFilePaths = getFilePaths(layout.getOrderedPaths(), fileDao);
-                    compactFilePaths = getFilePaths(compactPaths, fileDao);
-
-                    // add splits in orderedFilePaths
-                    for (String path : orderedFilePaths)
-                    {
-                        String[] hosts = hdfs.getHosts(path);
-                        PixelsSplit pixelsSplit = new PixelsSplit(new Path(path), 0, 1,
-                                false, new ArrayList<>(0), ordered.getColumnOrder(),
-                                hdfs.getStatus(path).getLength(), hosts);
-                        pixelsSplits.add(pixelsSplit);
-                    }
-                    // add splits in compactFilePaths
-                    int curFileRGIdx;
-                    for (String path : compactFilePaths)
-                    {
-                        curFileRGIdx = 0;
-                        while (curFileRGIdx < rowGroupNum)
-                        {
-                            String[] hosts = hdfs.getHosts(path);
-                            PixelsSplit pixelsSplit = new PixelsSplit(new Path(path), curFileRGIdx, splitSize,
-                                    false, new ArrayList<>(0), ordered.getColumnOrder(),
-                                    splitSize, hosts);
-                            pixelsSplits.add(pixelsSplit);
-                            curFileRGIdx += splitSize;
-                        }
-                    }
-                }
-                catch (IOException e)
-                {
-                    log.error("Failed to open or read file/object from storage.", e);
-                    return null;
-                }
-            }
+            return null;
         }
         sw.stop();
         if (log.isDebugEnabled())
@@ -388,71 +143,40 @@ public class PixelsInputFormat
             log.debug("Total # of splits generated by getSplits: " + pixelsSplits.size()
                     + ", TimeTaken: " + sw.now(TimeUnit.MILLISECONDS));
         }
-        /*
-        for (PixelsSplit split : pixelsSplits)
-        {
-            log.error(split);
-        }*/
         PixelsSplit[] splitsArray = new PixelsSplit[pixelsSplits.size()];
-        splitsArray = pixelsSplits.toArray(splitsArray);
         return pixelsSplits.toArray(splitsArray);
     }
 
-    private SplitsIndex buildSplitsIndex(long version, Ordered ordered, Splits splits, SchemaTableName schemaTableName) {
-        List<String> columnOrder = ordered.getColumnOrder();
-        SplitsIndex index;
-        index = new InvertedSplitsIndex(version, columnOrder, SplitPattern.buildPatterns(columnOrder, splits),
-                splits.getNumRowGroupInFile());
-        IndexFactory.Instance().cacheSplitsIndex(schemaTableName, index);
-        return index;
-    }
-
-    private ProjectionsIndex buildProjectionsIndex(Ordered ordered, Projections projections, SchemaTableName schemaTableName) {
-        List<String> columnOrder = ordered.getColumnOrder();
-        ProjectionsIndex index;
-        index = new InvertedProjectionsIndex(columnOrder, ProjectionPattern.buildPatterns(columnOrder, projections));
-        IndexFactory.Instance().cacheProjectionsIndex(schemaTableName, index);
-        return index;
-    }
-
     /**
-     * Hive depends on guava-14.0.1, which is not compatible with guava-21.0 used by grpc.
-     * So we have to used daos instead of grpc, although it is ugly.
-     * TODO: try dynamically unload guava-14.0.1 and load guava-21.1.
-     * @param st
-     * @return
+     * Create the planner of the splits. Override this method to plan the splits with
+     * other sources of the metadata, pixels cache registry and block locations.
+     *
+     * @param fs the file system of the job
+     * @param job the job configuration
+     * @return the planner that uses the metadata database, etcd and HDFS
      */
-    private List<Layout> getLayouts(SchemaTableName st)
+    protected PixelsSplitPlanner createSplitPlanner(FileSystem fs, JobConf job) throws IOException
     {
-        SchemaDao schemaDao = DaoFactory.Instance().getSchemaDao();
-        TableDao tableDao = DaoFactory.Instance().getTableDao();
-        LayoutDao layoutDao = DaoFactory.Instance().getLayoutDao();
-        MetadataProto.Schema schema = schemaDao.getByName(st.getSchemaName());
-        MetadataProto.Table table = tableDao.getByNameAndSchema(st.getTableName(), schema);
-        List<MetadataProto.Layout> layouts = layoutDao.getByTable(table, -1,
-                MetadataProto.GetLayoutRequest.PermissionRange.READABLE); // version < 0 means get all versions
-        List<Layout> res = new ArrayList<>();
-        layouts.forEach(layout -> res.add(new Layout(layout)));
-        return res;
+        return PixelsSplitPlanner.create(fs, job);
     }
 
-    public static List<String> getFilePaths(List<io.pixelsdb.pixels.common.metadata.domain.Path> dirPaths,
-                                            FileDao fileDao)
+    /**
+     * Get the bloom filter columns of the table, they are set in the table properties
+     * when the table is created, or in the configuration.
+     *
+     * @param job the job configuration
+     * @return the names of the bloom filter columns in lower case
+     */
+    private List<String> getBloomFilterColumns(JobConf job)
     {
-        ImmutableList.Builder<String> filePaths = ImmutableList.builder();
-        for (io.pixelsdb.pixels.common.metadata.domain.Path dirPath : dirPaths)
+        Properties tableProperties = null;
+        PartitionDesc partition = mapWork.getAliasToPartnInfo().get(mapWork.getAliases().get(0));
+        if (partition != null && partition.getTableDesc() != null)
         {
-            String base = dirPath.getUri();
-            if (!base.endsWith("/"))
-            {
-                base += "/";
-            }
-            for (MetadataProto.File file : fileDao.getAllByPathId(dirPath.getId()))
-            {
-                filePaths.add(base + file.getName());
-            }
+            tableProperties = partition.getTableDesc().getProperties();
         }
-        return filePaths.build();
+        return PixelsBloomFilterIndex.parseColumns(
+                PixelsConf.BLOOM_FILTER_COLUMNS.getString(tableProperties, job));
     }
 
     /**
@@ -491,17 +215,7 @@ public class PixelsInputFormat
             }
         }
 
-        String bindTable = job.get("bind.pixels.table");
-        if (bindTable == null)
-        {
-            throw new IOException("bind.pixels.table property is not found.");
-        }
-        String[] tokens = bindTable.split("\\.");
-        if (tokens.length != 2)
-        {
-            throw new IOException("bind.pixles.table=" + bindTable + " is illegal.");
-        }
-        this.st = new SchemaTableName(tokens[0], tokens[1]);
+        this.st = PixelsMetadata.getBindTable(null, job);
 
         // init included column ids and names.
         // This is not necessary if hive.input.format is set as HiveInputFormat.
@@ -23,14 +23,20 @@ import io.pixelsdb.pixels.core.PixelsReader;
 import io.pixelsdb.pixels.core.TypeDescription;
 import io.pixelsdb.pixels.core.reader.PixelsRecordReader;
 import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import io.pixelsdb.pixels.hive.common.PixelsColumnReader;
+import io.pixelsdb.pixels.hive.common.PixelsCounters;
+import io.pixelsdb.pixels.hive.common.PixelsEvents;
+import io.pixelsdb.pixels.hive.common.PixelsMetrics;
+import io.pixelsdb.pixels.hive.common.PixelsProfile;
 import io.pixelsdb.pixels.hive.common.PixelsRW;
+import io.pixelsdb.pixels.hive.common.PixelsSplit;
 import io.pixelsdb.pixels.hive.common.PixelsStruct;
-import io.pixelsdb.pixels.hive.common.PixelsValue;
 import org.apache.hadoop.hive.ql.io.StatsProvidingRecordReader;
 import org.apache.hadoop.hive.serde2.SerDeStats;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapred.InputSplit;
 import org.apache.hadoop.mapred.RecordReader;
+import org.apache.hadoop.mapred.Reporter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -58,16 +64,66 @@ public class PixelsMapredRecordReader
     private final PixelsRecordReader batchReader;
     private VectorizedRowBatch batch;
     private int rowIdInBatch;
-    private List<Integer> pixelsIncluded;
-    private List<Integer> hiveIncluded;
+    private final int[] pixelsIncluded;
+    private final int[] hiveIncluded;
     private List<TypeDescription> columnTypes;
     private int numColumns;
+    /**
+     * The readers of the projected columns, they are created once for the split.
+     */
+    private final PixelsColumnReader[] columnReaders;
+    private final boolean lazy;
+    /**
+     * The ids of the projected columns that are not constant in the current row batch.
+     */
+    private final int[] varyingColumns;
+    private int numVaryingColumns;
+    /**
+     * Whether the column readers are bound to the current row batch.
+     */
+    private boolean batchBound;
+    /**
+     * The value that the constant or lazy fields are set into.
+     */
+    private PixelsStruct boundValue;
+    /**
+     * The number of rows in the row groups of the split, and the number of rows
+     * that have been returned, they are used to calculate the progress.
+     */
+    private final long splitRows;
+    private long rowsConsumed;
+    private boolean endOfSplit;
+    private final PixelsSplit split;
+    private final String path;
+    /**
+     * The profile to write the record of the split when the reader is closed, null if disabled.
+     */
+    private final PixelsProfile profile;
+    private final long startNanos;
+    private final PixelsCounters counters;
+    private final Reporter reporter;
+    /**
+     * The accumulated wall time of reading the row batches.
+     */
+    private long readBatchNanos;
     private final SerDeStats stats;
     private final NullWritable currentKey;
     private PixelsStruct currentValue;
 
     public PixelsMapredRecordReader(PixelsReader fileReader,
                                     PixelsRW.ReaderOptions options) throws IOException
+    {
+        this(fileReader, options, Reporter.NULL);
+    }
+
+    /**
+     * @param fileReader the reader of the file
+     * @param options the reader options of the split
+     * @param reporter the reporter of the task, the pixels counters are reported to it
+     */
+    public PixelsMapredRecordReader(PixelsReader fileReader,
+                                    PixelsRW.ReaderOptions options,
+                                    Reporter reporter) throws IOException
     {
         this.options = options;
         this.schema = fileReader.getFileSchema();
@@ -77,11 +133,29 @@ public class PixelsMapredRecordReader
         this.batchReader = fileReader.read(options.getReaderOption());
         this.columnTypes = schema.getChildren();
         this.numColumns = columnTypes.size();
-        this.batchSize = options.getBatchSize();
+        this.batchSize = options.getBatchSize(fileReader);
         this.batch = null; // the first batch will be read in next.
         this.rowIdInBatch = 0;
         this.pixelsIncluded = options.getPixelsIncluded();
         this.hiveIncluded = options.getHiveIncluded();
+        this.columnReaders = PixelsColumnReader.create(schema, pixelsIncluded,
+                options.getNestedColumnPaths(), options.isBytesView());
+        this.lazy = options.isLazy();
+        this.varyingColumns = new int[pixelsIncluded.length];
+        this.numVaryingColumns = 0;
+        this.batchBound = false;
+        this.boundValue = null;
+        this.splitRows = PixelsRW.getNumberOfRows(fileReader, options.getSplit());
+        this.rowsConsumed = 0;
+        this.endOfSplit = false;
+        this.split = options.getSplit();
+        this.path = split.getPath().toString();
+        this.profile = options.getProfile();
+        this.startNanos = System.nanoTime();
+        this.counters = new PixelsCounters();
+        this.counters.addSplit(options, numColumns);
+        this.reporter = reporter;
+        this.readBatchNanos = 0;
         this.stats = new SerDeStats();
         stats.setRawDataSize(fileReader.getCompressionBlockSize());
         stats.setRowCount(fileReader.getNumberOfRows());
@@ -101,9 +175,24 @@ public class PixelsMapredRecordReader
                 batch.endOfFile || rowIdInBatch >= batch.size)
         {
             rowIdInBatch = 0;
+            PixelsEvents.BatchRead event = PixelsEvents.beginBatchRead();
+            long bytes = batchReader.getCompletedBytes();
+            long start = System.nanoTime();
             batch = batchReader.readBatch(batchSize);
+            readBatchNanos += System.nanoTime() - start;
+            if (event.isEnabled())
+            {
+                event.setPath(path);
+                event.setRows(batch == null ? 0 : batch.size);
+                event.setBytes(batchReader.getCompletedBytes() - bytes);
+                event.setColumns(pixelsIncluded.length);
+                event.commit();
+            }
+            batchBound = false;
+            updateCounters();
             if (batch == null || this.batch.size <= 0 || this.batch.endOfFile)
             {
+                endOfSplit = true;
                 return false;
             }
         }
@@ -121,23 +210,83 @@ public class PixelsMapredRecordReader
             return false;
         }
 
-        if (this.pixelsIncluded.size() == 0)
+        if (this.pixelsIncluded.length == 0)
         {
             rowIdInBatch += 1;
+            rowsConsumed += 1;
             return true;
         }
 
-        int numberOfIncluded = this.pixelsIncluded.size();
-        for (int i = 0; i < numberOfIncluded; ++i)
+        if (!batchBound || boundValue != value)
         {
-            value.setFieldValue(hiveIncluded.get(i), PixelsValue.nextValue(batch.cols[i], rowIdInBatch,
-                    columnTypes.get(pixelsIncluded.get(i)), value.getFieldValue(hiveIncluded.get(i))));
+            // the repeating and null columns are set only once for the row batch.
+            numVaryingColumns = 0;
+            for (int i = 0; i < this.pixelsIncluded.length; ++i)
+            {
+                PixelsColumnReader reader = columnReaders[i];
+                reader.bind(batch.cols[i], batch.size);
+                if (lazy)
+                {
+                    value.setLazyField(hiveIncluded[i], reader);
+                } else if (reader.isConstant())
+                {
+                    value.setFieldValue(hiveIncluded[i], reader.read(0));
+                } else
+                {
+                    varyingColumns[numVaryingColumns++] = i;
+                }
+            }
+            batchBound = true;
+            boundValue = value;
+        }
+
+        if (lazy)
+        {
+            value.setLazyRow(rowIdInBatch);
+        } else
+        {
+            if (PixelsCounters.isSampled(rowIdInBatch))
+            {
+                long start = System.nanoTime();
+                setVaryingFields(value);
+                counters.increment(PixelsCounters.Counter.MATERIALIZATION_MILLIS,
+                        (System.nanoTime() - start) * PixelsCounters.SAMPLE_INTERVAL);
+            } else
+            {
+                setVaryingFields(value);
+            }
         }
 
         rowIdInBatch += 1;
+        rowsConsumed += 1;
         return true;
     }
 
+    private void setVaryingFields(PixelsStruct value)
+    {
+        for (int j = 0; j < numVaryingColumns; ++j)
+        {
+            int i = varyingColumns[j];
+            value.setFieldValue(hiveIncluded[i], columnReaders[i].read(rowIdInBatch));
+        }
+    }
+
+    /**
+     * Update the counters after a row batch is read, and report them to the task.
+     */
+    private void updateCounters()
+    {
+        if (batch != null && !batch.endOfFile)
+        {
+            counters.increment(PixelsCounters.Counter.ROWS_READ, batch.size);
+        }
+        long ioNanos = batchReader.getReadTimeNanos();
+        counters.set(PixelsCounters.Counter.BYTES_READ_HDFS, batchReader.getCompletedBytes());
+        counters.set(PixelsCounters.Counter.IO_MILLIS, ioNanos);
+        counters.set(PixelsCounters.Counter.DECODE_MILLIS, Math.max(0, readBatchNanos - ioNanos));
+        counters.report(reporter);
+    }
+
     /**
      * Create an object of the appropriate type to be used as a key.
      *
@@ -169,7 +318,8 @@ public class PixelsMapredRecordReader
     @Override
     public long getPos() throws IOException
     {
-        return 0;
+        // the bytes read from the file, it is approximate as the column chunks are read by row groups.
+        return batchReader.getCompletedBytes();
     }
 
     /**
@@ -180,8 +330,15 @@ public class PixelsMapredRecordReader
     @Override
     public void close() throws IOException
     {
+        counters.report(reporter);
         batchReader.close();
         // do not close the fileReader, it is shared by other record readers.
+        long wallNanos = System.nanoTime() - startNanos;
+        PixelsMetrics.Instance().recordSplit(counters, wallNanos);
+        if (profile != null)
+        {
+            profile.write(PixelsProfile.TYPE_READ, PixelsProfile.readRecord(split, counters, wallNanos));
+        }
     }
 
     /**
@@ -194,8 +351,15 @@ public class PixelsMapredRecordReader
     @Override
     public float getProgress() throws IOException
     {
-        // TODO: calculate the progress.
-        return 0;
+        if (endOfSplit)
+        {
+            return 1.0f;
+        }
+        if (splitRows <= 0)
+        {
+            return 0;
+        }
+        return Math.min(1.0f, (float) rowsConsumed / splitRows);
     }
 
     @Override
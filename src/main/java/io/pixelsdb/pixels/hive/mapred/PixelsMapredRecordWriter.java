@@ -21,16 +21,30 @@ package io.pixelsdb.pixels.hive.mapred;
 
 import io.pixelsdb.pixels.core.PixelsWriter;
 import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.hive.common.PixelsBloomFilterIndex;
+import io.pixelsdb.pixels.hive.common.PixelsBytesView;
+import io.pixelsdb.pixels.hive.common.PixelsEncodingSelector;
+import io.pixelsdb.pixels.hive.common.PixelsEvents;
+import io.pixelsdb.pixels.hive.common.PixelsMemoryManager;
+import io.pixelsdb.pixels.hive.common.PixelsProfile;
+import io.pixelsdb.pixels.hive.common.PixelsRW;
 import io.pixelsdb.pixels.hive.common.PixelsStruct;
 import io.pixelsdb.pixels.core.vector.BinaryColumnVector;
+import io.pixelsdb.pixels.core.vector.ByteColumnVector;
 import io.pixelsdb.pixels.core.vector.ColumnVector;
+import io.pixelsdb.pixels.core.vector.DecimalColumnVector;
 import io.pixelsdb.pixels.core.vector.DoubleColumnVector;
 import io.pixelsdb.pixels.core.vector.LongColumnVector;
 import io.pixelsdb.pixels.core.vector.StructColumnVector;
 import io.pixelsdb.pixels.core.vector.TimestampColumnVector;
 import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
 import io.pixelsdb.pixels.hive.PixelsSerDe;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.type.HiveDecimal;
 import org.apache.hadoop.hive.serde2.io.DateWritable;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.apache.hadoop.hive.serde2.io.TimestampWritable;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.StructField;
@@ -39,14 +53,22 @@ import org.apache.hadoop.hive.serde2.objectinspector.primitive.*;
 import org.apache.hadoop.io.*;
 import org.apache.hadoop.mapred.RecordWriter;
 import org.apache.hadoop.mapred.Reporter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.sql.Timestamp;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * This class is currently not finished, so that write is not supported by pixels-hive.
+ * Writes the rows of hive into a pixels file. The rows are buffered in a row batch,
+ * whose size is bounded by the memory budget of this writer in {@link PixelsMemoryManager},
+ * and the row batches are added into the pixels writer, which is created at the first flush.
+ * The writer checks the scale published by the memory manager on its own thread for each row,
+ * as the writers of the tasks sharing a JVM must not flush each other's row batches.
  *
  * refers to {@link org.apache.hadoop.hive.ql.io.orc.WriterImpl}
  *
@@ -54,19 +76,221 @@ import java.util.List;
 public class PixelsMapredRecordWriter
         implements RecordWriter<NullWritable, PixelsSerDe.PixelsRow>
 {
-    private final PixelsWriter writer;
-    private final VectorizedRowBatch batch;
+    private static Logger log = LogManager.getLogger(PixelsMapredRecordWriter.class);
+
+    /**
+     * The minimum number of rows in the row batch, it is used
+     * when the memory pool is heavily oversubscribed.
+     */
+    private static final int MIN_BATCH_SIZE = 64;
+
+    /**
+     * The pixels writer, if it is not given, it is created at the first flush,
+     * so that the encoding level can be selected by sampling the first row batch.
+     */
+    private PixelsWriter writer;
+    private final PixelsRW.WriterOptions options;
+    private VectorizedRowBatch batch;
     private final TypeDescription schema;
-    private final ObjectInspector inspector;
-    private final StructField[] fields;
+    private StructField[] fields;
+    private final Path path;
+    private final PixelsMemoryManager memoryManager;
+    private final long stripeSize;
+    private final int rowWidth;
+    /**
+     * The estimated bytes of the rows buffered in the current row group of the pixels writer,
+     * and the allocation scale when the pixels writer was created, which fixed its row group size.
+     */
+    private long rowGroupBytes;
+    private double writerScale;
+    /**
+     * The allocation scale that the budget of this writer was last checked against.
+     */
+    private double checkedScale;
+    /**
+     * Whether the row group buffered in the pixels writer exceeds the budget of this writer,
+     * after the memory pool has been oversubscribed by the writers opened later.
+     */
+    private boolean overBudget;
+    private final Configuration conf;
+    /**
+     * The builder of the bloom filters, null if bloom filters are not enabled.
+     */
+    private final PixelsBloomFilterIndex.Builder bloomFilters;
+    /**
+     * The profile to write the record of the file when the writer is closed, null if disabled.
+     */
+    private final PixelsProfile profile;
+    private final long startNanos;
+    private long numRows;
+    /**
+     * The time spent in adding the row batches into the pixels writer.
+     */
+    private long flushNanos;
+
+    public PixelsMapredRecordWriter(PixelsWriter writer, Path path,
+                                    PixelsRW.WriterOptions options)
+    {
+        this(writer, writer.getSchema(), path, options);
+    }
+
+    /**
+     * Create a record writer that creates the pixels writer of the path when
+     * the first row batch is written.
+     *
+     * @param path the path of the file
+     * @param options the options of the writer
+     */
+    public PixelsMapredRecordWriter(Path path, PixelsRW.WriterOptions options)
+    {
+        this(null, options.getSchema(), path, options);
+    }
 
-    public PixelsMapredRecordWriter(PixelsWriter writer)
+    private PixelsMapredRecordWriter(PixelsWriter writer, TypeDescription schema, Path path,
+                                     PixelsRW.WriterOptions options)
     {
         this.writer = writer;
-        this.schema = writer.getSchema();
-        this.inspector = null;
-        this.batch = schema.createRowBatch();
-        this.fields = initializeFieldsFromOi(inspector);
+        this.options = options;
+        this.schema = schema;
+        // fields are initialized from the object inspector of the first row.
+        this.fields = null;
+        this.path = path;
+        this.memoryManager = options.getMemoryManager();
+        this.stripeSize = options.getStripeSize();
+        this.rowWidth = PixelsRW.estimateRowWidth(schema, options.getStringWidth());
+        this.rowGroupBytes = 0;
+        this.writerScale = 1;
+        this.overBudget = false;
+        this.conf = options.getConfiguration();
+        if (options.getBloomFilterColumns().isEmpty())
+        {
+            this.bloomFilters = null;
+        } else
+        {
+            // the expected number of rows in a row group.
+            this.bloomFilters = new PixelsBloomFilterIndex.Builder(schema, options.getBloomFilterColumns(),
+                    stripeSize / Math.max(rowWidth, 1), options.getBloomFilterFpp());
+        }
+        this.profile = PixelsProfile.create(conf);
+        this.startNanos = System.nanoTime();
+        this.numRows = 0;
+        this.flushNanos = 0;
+        this.checkedScale = memoryManager.getAllocationScale();
+        this.batch = schema.createRowBatch(getBatchSize(checkedScale));
+        // the stripe size is the memory budget of this writer, the scale changed by
+        // registering it is checked at the first row.
+        this.memoryManager.addWriter(path, stripeSize);
+    }
+
+    /**
+     * Get the number of rows in the row batch that fits in the scaled memory budget.
+     *
+     * @param scale the current scale of the memory allocations
+     * @return the number of rows
+     */
+    private int getBatchSize(double scale)
+    {
+        long budget = Math.round(stripeSize * scale);
+        long rows = budget / Math.max(rowWidth, 1);
+        return (int) Math.max(MIN_BATCH_SIZE, Math.min(VectorizedRowBatch.DEFAULT_SIZE, rows));
+    }
+
+    private void createWriter() throws IOException
+    {
+        PixelsRW.WriterOptions writerOptions = options;
+        if (options.isEncodingAuto() && batch.size > 0)
+        {
+            writerOptions = options.clone().encodingLevel(PixelsEncodingSelector.select(
+                    schema, batch, options.getColumnEncodings(), options.getEncodingMinGain()));
+        }
+        // the row group size of the pixels writer is scaled by the current allocation scale.
+        writerScale = memoryManager.getAllocationScale();
+        writer = PixelsRW.createWriter(path, writerOptions);
+    }
+
+    /**
+     * Write the buffered rows into the pixels writer and reset the row batch.
+     * The pixels writer returns false if it has flushed the row group that
+     * contains the rows, then the bloom filters of the row group are finished.
+     */
+    private void flushBatch() throws IOException
+    {
+        if (writer == null)
+        {
+            createWriter();
+        }
+        if (bloomFilters != null)
+        {
+            bloomFilters.add(batch);
+        }
+        PixelsEvents.WriterFlush event = PixelsEvents.beginWriterFlush();
+        long bytes = writer.getCompletedBytes();
+        long start = System.nanoTime();
+        boolean rowGroupFlushed = !writer.addRowBatch(batch);
+        flushNanos += System.nanoTime() - start;
+        numRows += batch.size;
+        rowGroupBytes = rowGroupFlushed ? 0 : rowGroupBytes + (long) batch.size * rowWidth;
+        if (rowGroupFlushed && bloomFilters != null)
+        {
+            bloomFilters.finishRowGroup();
+        }
+        if (event.isEnabled())
+        {
+            event.setPath(path.toString());
+            event.setRows(batch.size);
+            event.setBytes(writer.getCompletedBytes() - bytes);
+            event.setRowGroupFlushed(rowGroupFlushed);
+            event.commit();
+        }
+        batch.reset();
+    }
+
+    /**
+     * Check the buffered rows against the scaled memory budget of this writer.
+     * The buffered rows include the row batch and the current row group in the
+     * pixels writer. The row batch is flushed into the pixels writer if they exceed
+     * the budget, and the row batch is shrunk if the budget can not hold it.
+     * <p>
+     * The row group size of the pixels writer is fixed when it is created, so the
+     * row group can only be released by closing the file. If the scale has dropped
+     * since then and the row group exceeds the budget, {@link #isOverBudget()} is set
+     * so that the owner of this writer can roll over to a new file.
+     * </p>
+     * It is only called on the thread that writes the rows.
+     *
+     * @param newScale the current scale factor for memory allocations
+     * @return true if the buffered rows are flushed
+     * @throws IOException
+     */
+    private boolean checkMemory(double newScale) throws IOException
+    {
+        checkedScale = newScale;
+        long budget = Math.round(stripeSize * newScale);
+        int batchSize = getBatchSize(newScale);
+        boolean overLimit = (long) batch.size * rowWidth + rowGroupBytes > budget;
+        boolean shrink = batchSize < batch.getMaxSize();
+        boolean flushed = false;
+        if (batch.size != 0 && (overLimit || shrink))
+        {
+            flushBatch();
+            flushed = true;
+        }
+        if (shrink)
+        {
+            log.debug("shrink the row batch of " + path + " to " + batchSize + " rows");
+            batch = schema.createRowBatch(batchSize);
+        }
+        overBudget = writer != null && newScale < writerScale && rowGroupBytes > budget;
+        return flushed;
+    }
+
+    /**
+     * @return true if the row group buffered in the pixels writer exceeds the memory budget
+     * of this writer, the file should be closed to release it
+     */
+    public boolean isOverBudget()
+    {
+        return overBudget;
     }
 
     private static StructField[] initializeFieldsFromOi(ObjectInspector inspector)
@@ -84,16 +308,48 @@ public class PixelsMapredRecordWriter
         }
     }
 
+    /**
+     * The boolean values are held in a {@link ByteColumnVector}, as read by the boolean column reader.
+     */
+    static void setBooleanValue(ColumnVector vector, int row, boolean value)
+    {
+        ((ByteColumnVector) vector).vector[row] = (byte) (value ? 1 : 0);
+    }
+
     static void setLongValue(ColumnVector vector, int row, long value)
     {
         ((LongColumnVector) vector).vector[row] = value;
     }
 
+    static void setFloatValue(ColumnVector vector, int row, float value)
+    {
+        ((DoubleColumnVector) vector).vector[row] = Float.floatToIntBits(value);
+    }
+
     static void setDoubleValue(ColumnVector vector, int row, double value)
     {
         ((DoubleColumnVector) vector).vector[row] = Double.doubleToLongBits(value);
     }
 
+    /**
+     * Set the decimal as the long of its unscaled value in the scale of the column.
+     * The decimal is rounded to the scale of the column, it is set to null if it
+     * does not fit in the precision of the column.
+     */
+    static void setDecimalValue(ColumnVector vector, int row, HiveDecimal value)
+    {
+        DecimalColumnVector decimals = (DecimalColumnVector) vector;
+        HiveDecimal enforced = HiveDecimal.enforcePrecisionScale(value, decimals.precision, decimals.scale);
+        if (enforced == null)
+        {
+            decimals.noNulls = false;
+            decimals.isNull[row] = true;
+        } else
+        {
+            decimals.vector[row] = enforced.scaleByPowerOfTen(decimals.scale).longValue();
+        }
+    }
+
     static void setBinaryValue(ColumnVector vector, int row,
                                BinaryComparable value)
     {
@@ -165,13 +421,17 @@ public class PixelsMapredRecordWriter
         {
             vector.noNulls = false;
             vector.isNull[row] = true;
+        } else if (value instanceof PixelsBytesView)
+        {
+            PixelsBytesView view = (PixelsBytesView) value;
+            ((BinaryColumnVector) vector).setVal(row, view.getBytes(), view.getStart(), view.getLength());
         } else
         {
             switch (schema.getCategory())
             {
-                // TODO: TIME and TIMESTAMP are currently not supported in Hive.
+                // TODO: TIME is currently not supported in Hive.
                 case BOOLEAN:
-                    setLongValue(vector, row, ((BooleanWritable) value).get() ? 1 : 0);
+                    setBooleanValue(vector, row, ((BooleanWritable) value).get());
                     break;
                 case BYTE:
                     setLongValue(vector, row, ((ByteWritable) value).get());
@@ -186,7 +446,7 @@ public class PixelsMapredRecordWriter
                     setLongValue(vector, row, ((LongWritable) value).get());
                     break;
                 case FLOAT:
-                    setDoubleValue(vector, row, ((FloatWritable) value).get());
+                    setFloatValue(vector, row, ((FloatWritable) value).get());
                     break;
                 case DOUBLE:
                     setDoubleValue(vector, row, ((DoubleWritable) value).get());
@@ -205,9 +465,15 @@ public class PixelsMapredRecordWriter
                 case VARBINARY:
                     setBinaryValue(vector, row, (BytesWritable) value);
                     break;
+                case DECIMAL:
+                    setDecimalValue(vector, row, ((HiveDecimalWritable) value).getHiveDecimal());
+                    break;
                 case DATE:
                     setLongValue(vector, row, ((DateWritable) value).getDays());
                     break;
+                case TIMESTAMP:
+                    ((TimestampColumnVector) vector).set(row, ((TimestampWritable) value).getTimestamp());
+                    break;
                 case STRUCT:
                     setStructValue(schema, (StructColumnVector) vector, row,
                             (PixelsStruct) value);
@@ -225,6 +491,11 @@ public class PixelsMapredRecordWriter
         {
             column.noNulls = false;
             column.isNull[rowId] = true;
+        } else if (obj instanceof PixelsBytesView)
+        {
+            // read by pixels as a view, set the bytes without copying them into a writable.
+            PixelsBytesView view = (PixelsBytesView) obj;
+            ((BinaryColumnVector) column).setVal(rowId, view.getBytes(), view.getStart(), view.getLength());
         } else
         {
             switch (inspector.getCategory())
@@ -234,12 +505,8 @@ public class PixelsMapredRecordWriter
                             .getPrimitiveCategory())
                     {
                         case BOOLEAN:
-                        {
-                            LongColumnVector vector = (LongColumnVector) column;
-                            vector.vector[rowId] =
-                                    ((BooleanObjectInspector) inspector).get(obj) ? 1 : 0;
+                            setBooleanValue(column, rowId, ((BooleanObjectInspector) inspector).get(obj));
                             break;
-                        }
                         case BYTE:
                         {
                             LongColumnVector vector = (LongColumnVector) column;
@@ -326,6 +593,12 @@ public class PixelsMapredRecordWriter
                                     .getPrimitiveWritableObject(obj).getDays();
                             break;
                         }
+                        case DECIMAL:
+                        {
+                            setDecimalValue(column, rowId, ((HiveDecimalObjectInspector) inspector)
+                                    .getPrimitiveJavaObject(obj));
+                            break;
+                        }
                     }
                     break;
                 case STRUCT:
@@ -351,15 +624,37 @@ public class PixelsMapredRecordWriter
     @Override
     public void write(NullWritable nullWritable, PixelsSerDe.PixelsRow row) throws IOException
     {
+        write(row.getInspector(), row.getRow());
+    }
+
+    /**
+     * Write a row that is accessed by the object inspector.
+     * All the rows written by this writer must have the same type of object inspector.
+     *
+     * @param inspector the object inspector of the row
+     * @param realRow the row
+     * @throws IOException
+     */
+    public void write(ObjectInspector inspector, Object realRow) throws IOException
+    {
+        double scale = memoryManager.getAllocationScale();
         // if the batch is full, write it out.
         if (batch.size == batch.getMaxSize())
         {
-            writer.addRowBatch(batch);
-            batch.reset();
+            flushBatch();
+            // the row group in the pixels writer has grown, check it against the budget.
+            checkMemory(scale);
+        } else if (scale != checkedScale)
+        {
+            checkMemory(scale);
         }
 
         // add the new row
         int rowId = batch.size++;
+        if (fields == null)
+        {
+            fields = initializeFieldsFromOi(inspector);
+        }
         // skip over the PixelsKey or PixelsValue
         if (fields != null)
         {
@@ -368,25 +663,80 @@ public class PixelsMapredRecordWriter
             {
                 setColumn(rowId, batch.cols[i],
                         fields[i].getFieldObjectInspector(),
-                        soi.getStructFieldData(row, fields[i]));
+                        soi.getStructFieldData(realRow, fields[i]));
             }
         } else
         {
-            setColumn(rowId, batch.cols[0], inspector, row);
+            setColumn(rowId, batch.cols[0], inspector, realRow);
         }
     }
 
+    public Path getPath()
+    {
+        return path;
+    }
+
+    /**
+     * @return the number of bytes that have been written into the file
+     */
+    public long getCompletedBytes()
+    {
+        return writer == null ? 0 : writer.getCompletedBytes();
+    }
+
+    /**
+     * @return the number of row groups in the file, it is final after the writer is closed
+     */
+    public int getNumRowGroup()
+    {
+        return writer == null ? 0 : writer.getNumRowGroup();
+    }
+
     @Override
     public void close(Reporter reporter) throws IOException
     {
-        if (batch != null && batch.size != 0)
+        try
         {
-            writer.addRowBatch(batch);
-            batch.reset();
+            if (batch != null && batch.size != 0)
+            {
+                flushBatch();
+            }
+            if (writer == null)
+            {
+                // no rows are written, create an empty file.
+                createWriter();
+            }
+            long start = System.nanoTime();
+            writer.close();
+            flushNanos += System.nanoTime() - start;
+        } finally
+        {
+            memoryManager.removeWriter(path);
         }
-        if (writer != null)
+        if (bloomFilters != null)
         {
-            writer.close();
+            // the last row group is flushed when the writer is closed.
+            bloomFilters.finishRowGroup();
+            if (bloomFilters.getNumRowGroup() == writer.getNumRowGroup())
+            {
+                bloomFilters.write(path.getFileSystem(conf), path);
+            } else
+            {
+                // a misaligned index may skip the wrong row groups, do not write it.
+                log.warn("bloom filters of " + bloomFilters.getNumRowGroup() + " row groups do not match " +
+                        writer.getNumRowGroup() + " row groups in " + path + ", they are discarded");
+            }
+        }
+        if (profile != null)
+        {
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("path", path.toString());
+            record.put("rows", numRows);
+            record.put("bytes", writer.getCompletedBytes());
+            record.put("rowGroups", writer.getNumRowGroup());
+            record.put("flushMillis", flushNanos / 1000000);
+            record.put("wallMillis", (System.nanoTime() - startNanos) / 1000000);
+            profile.write(PixelsProfile.TYPE_WRITE, record);
         }
     }
 }
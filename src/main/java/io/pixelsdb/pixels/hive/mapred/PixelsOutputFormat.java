@@ -22,13 +22,21 @@ package io.pixelsdb.pixels.hive.mapred;
 import io.pixelsdb.pixels.core.PixelsWriter;
 import io.pixelsdb.pixels.core.TypeDescription;
 import io.pixelsdb.pixels.hive.common.PixelsConf;
+import io.pixelsdb.pixels.hive.common.PixelsManifest;
 import io.pixelsdb.pixels.hive.common.PixelsRW;
+import io.pixelsdb.pixels.hive.PixelsCommitHook;
 import io.pixelsdb.pixels.hive.PixelsSerDe;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.ql.exec.FileSinkOperator;
 import org.apache.hadoop.hive.ql.io.HiveOutputFormat;
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.SerDeUtils;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoUtils;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.mapred.FileOutputFormat;
@@ -37,12 +45,16 @@ import org.apache.hadoop.mapred.RecordWriter;
 import org.apache.hadoop.util.Progressable;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 
 /**
  * An PIXELS output format that satisfies the org.apache.hadoop.mapred API.
  *
- * This class is not finished, so that write is not supported by pixels-hive.
+ * Hive writes the pixels files by {@link PixelsRollingRecordWriter}, the written
+ * files are registered in pixels metadata by {@link io.pixelsdb.pixels.hive.PixelsCommitHook}.
  *
  * refers to {@link org.apache.hadoop.hive.ql.io.orc.OrcOutputFormat}
  */
@@ -66,7 +78,25 @@ public class PixelsOutputFormat
                 .blockSize(PixelsConf.BLOCK_SIZE.getLong(conf))
                 .blockPadding(PixelsConf.BLOCK_PADDING.getBoolean(conf))
                 .encodingLevel(PixelsConf.ENCODING_LEVEL.getEncodingLevel(conf))
-                .compressionStrategy((int) PixelsConf.COMPRESSION_STRATEGY.getLong(conf));
+                .encodingAuto(PixelsConf.ENCODING_LEVEL.isAutoEncoding(null, conf));
+    }
+
+    /**
+     * Get the schema of the pixels files from the columns of the hive table.
+     *
+     * @param tableProperties the table properties
+     * @return the schema
+     */
+    static TypeDescription getSchema(Properties tableProperties)
+    {
+        String columnNameProperty = tableProperties.getProperty(serdeConstants.LIST_COLUMNS);
+        String columnTypeProperty = tableProperties.getProperty(serdeConstants.LIST_COLUMN_TYPES);
+        final String columnNameDelimiter = tableProperties.containsKey(serdeConstants.COLUMN_NAME_DELIMITER) ?
+                tableProperties.getProperty(serdeConstants.COLUMN_NAME_DELIMITER) : String.valueOf(SerDeUtils.COMMA);
+        List<String> columnNames = new ArrayList<>(Arrays.asList(columnNameProperty.split(columnNameDelimiter)));
+        List<TypeInfo> columnTypes = TypeInfoUtils.getTypeInfosFromTypeString(columnTypeProperty);
+        TypeInfo rootType = TypeInfoFactory.getStructTypeInfo(columnNames, columnTypes);
+        return TypeDescription.fromString(rootType.getTypeName());
     }
 
     @Override
@@ -77,15 +107,16 @@ public class PixelsOutputFormat
     ) throws IOException
     {
         Path path = getTaskOutputPath(conf, name);
-        PixelsWriter writer = PixelsRW.createWriter(path,
-                buildOptions(conf).fileSystem(fileSystem));
-        return new PixelsMapredRecordWriter(writer);
+        PixelsRW.WriterOptions options = buildOptions(conf).fileSystem(fileSystem);
+        PixelsWriter writer = PixelsRW.createWriter(path, options);
+        return new PixelsMapredRecordWriter(writer, path, options);
     }
 
     /**
      * create the final out file and get some specific settings.
      * In case of empty table location, this method is called, so that it should not
      * return null.
+     * The final out file is the manifest of the pixels files written by the task.
      *
      * @param jobConf
      *          the job configuration file
@@ -107,19 +138,26 @@ public class PixelsOutputFormat
                                                              boolean isCompressed, Properties tableProperties,
                                                              Progressable progress) throws IOException
     {
-        return new FileSinkOperator.RecordWriter()
+        // without the hook, the files are never registered and the manifests are never removed.
+        if (!jobConf.get(HiveConf.ConfVars.POSTEXECHOOKS.varname, "").contains(PixelsCommitHook.class.getName()))
         {
-            @Override
-            public void write(Writable w) throws IOException
-            {
-
-            }
-
-            @Override
-            public void close(boolean abort) throws IOException
-            {
-
-            }
-        };
+            throw new IOException("writing pixels tables requires " + HiveConf.ConfVars.POSTEXECHOOKS.varname +
+                    " to include " + PixelsCommitHook.class.getName());
+        }
+        // the commit hook only reads the files named by hive as manifests.
+        if (!PixelsManifest.isManifestName(finalOutPath.getName()))
+        {
+            throw new IOException("the output file name " + finalOutPath.getName() + " is not a task output " +
+                    "name of hive, unset " + HiveConf.ConfVars.OUTPUT_FILE_EXTENSION.varname + " for pixels tables");
+        }
+        PixelsRW.WriterOptions options = PixelsRW.writerOptions(tableProperties, jobConf)
+                .setSchema(getSchema(tableProperties));
+        PixelsRollingRecordWriter writer =
+                new PixelsRollingRecordWriter(jobConf, finalOutPath, tableProperties, options);
+        if (PixelsConf.CLUSTER_COLUMNS.getString(tableProperties, jobConf).trim().isEmpty())
+        {
+            return writer;
+        }
+        return new PixelsClusteringRecordWriter(jobConf, finalOutPath, tableProperties, writer);
     }
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.mapred;
+
+import io.pixelsdb.pixels.common.metadata.SchemaTableName;
+import io.pixelsdb.pixels.common.metadata.domain.Layout;
+import io.pixelsdb.pixels.daemon.MetadataProto;
+import io.pixelsdb.pixels.hive.PixelsSerDe;
+import io.pixelsdb.pixels.hive.common.PixelsBloomFilterIndex;
+import io.pixelsdb.pixels.hive.common.PixelsConf;
+import io.pixelsdb.pixels.hive.common.PixelsManifest;
+import io.pixelsdb.pixels.hive.common.PixelsMetadata;
+import io.pixelsdb.pixels.hive.common.PixelsRW;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.api.hive_metastoreConstants;
+import org.apache.hadoop.hive.ql.exec.FileSinkOperator;
+import org.apache.hadoop.hive.ql.exec.Utilities;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapred.JobConf;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The record writer of hive, it writes the rows into the ordered path of the
+ * latest writable layout of the bound pixels table, and rolls over to a new
+ * file after the current file reaches {@link PixelsConf#OUTPUT_FILE_SIZE}.
+ * <p>
+ * The files are not registered in pixels metadata by this writer. Instead, they
+ * are listed in a {@link PixelsManifest} that is written to the output path given
+ * by hive, and registered in one batch by {@link io.pixelsdb.pixels.hive.PixelsCommitHook}
+ * at job commit.
+ * </p>
+ * The ordered paths must not be in the location of the hive table, as the location
+ * is listed for the manifests and cleared by INSERT OVERWRITE.
+ * Created at: 2026-10-18
+ */
+public class PixelsRollingRecordWriter implements FileSinkOperator.RecordWriter
+{
+    private static Logger log = LogManager.getLogger(PixelsRollingRecordWriter.class);
+
+    private final JobConf conf;
+    private final Path manifestPath;
+    private final PixelsRW.WriterOptions options;
+    private final io.pixelsdb.pixels.common.metadata.domain.Path orderedPath;
+    private final String queryId;
+    private final String filePrefix;
+    private final long fileSize;
+    private final List<MetadataProto.File> files = new ArrayList<>();
+    private final List<Path> filePaths = new ArrayList<>();
+    private PixelsMapredRecordWriter current = null;
+
+    public PixelsRollingRecordWriter(JobConf conf, Path manifestPath,
+                                     Properties tableProperties,
+                                     PixelsRW.WriterOptions options) throws IOException
+    {
+        this.conf = conf;
+        this.manifestPath = manifestPath;
+        this.options = options;
+        this.fileSize = PixelsConf.OUTPUT_FILE_SIZE.getLong(tableProperties, conf);
+
+        SchemaTableName st = PixelsMetadata.getBindTable(tableProperties, conf);
+        Layout layout = PixelsMetadata.getWritableLayout(st);
+        List<io.pixelsdb.pixels.common.metadata.domain.Path> orderedPaths = layout.getOrderedPaths();
+        if (orderedPaths == null || orderedPaths.isEmpty())
+        {
+            throw new IOException("layout " + layout.getVersion() + " of table " + st +
+                    " does not have any ordered path");
+        }
+        checkOutsideLocation(orderedPaths,
+                tableProperties.getProperty(hive_metastoreConstants.META_TABLE_LOCATION), conf);
+        String taskId = Utilities.getTaskId(conf);
+        // spread the tasks over the ordered paths.
+        this.orderedPath = orderedPaths.get(Math.floorMod(taskId.hashCode(), orderedPaths.size()));
+        this.queryId = HiveConf.getVar(conf, HiveConf.ConfVars.HIVEQUERYID);
+        this.filePrefix = queryId + "_" + taskId + "_";
+    }
+
+    /**
+     * Check that the ordered paths are not the location of the hive table or under it.
+     *
+     * @param location the location of the hive table, may be null
+     * @throws IOException if any ordered path is in the location
+     */
+    private static void checkOutsideLocation(List<io.pixelsdb.pixels.common.metadata.domain.Path> orderedPaths,
+                                             String location, JobConf conf) throws IOException
+    {
+        if (location == null || location.isEmpty())
+        {
+            return;
+        }
+        Path tablePath = new Path(location);
+        tablePath = tablePath.getFileSystem(conf).makeQualified(tablePath);
+        for (io.pixelsdb.pixels.common.metadata.domain.Path orderedPath : orderedPaths)
+        {
+            Path path = new Path(orderedPath.getUri());
+            for (path = path.getFileSystem(conf).makeQualified(path); path != null; path = path.getParent())
+            {
+                if (path.equals(tablePath))
+                {
+                    throw new IOException("ordered path " + orderedPath.getUri() + " is in the location " +
+                            location + " of the hive table, which is cleared by hive");
+                }
+            }
+        }
+    }
+
+    private void openNextFile() throws IOException
+    {
+        String name = filePrefix + filePaths.size() + ".pxl";
+        Path path = new Path(orderedPath.getUri(), name);
+        filePaths.add(path);
+        // the pixels writer is created when the first row batch is flushed.
+        current = new PixelsMapredRecordWriter(path, options);
+        log.debug("open pixels file " + path);
+    }
+
+    private void closeCurrentFile() throws IOException
+    {
+        current.close(null);
+        files.add(MetadataProto.File.newBuilder()
+                .setName(current.getPath().getName())
+                .setNumRowGroup(current.getNumRowGroup())
+                .setPathId(orderedPath.getId()).build());
+        current = null;
+    }
+
+    @Override
+    public void write(Writable w) throws IOException
+    {
+        PixelsSerDe.PixelsRow row = (PixelsSerDe.PixelsRow) w;
+        write(row.getInspector(), row.getRow());
+    }
+
+    /**
+     * Write a row that is accessed by the object inspector.
+     *
+     * @param inspector the object inspector of the row
+     * @param realRow the row
+     * @throws IOException
+     */
+    public void write(ObjectInspector inspector, Object realRow) throws IOException
+    {
+        if (current == null)
+        {
+            openNextFile();
+        }
+        current.write(inspector, realRow);
+        // roll over early if the memory pool is oversubscribed by the writers opened later,
+        // closing the file is the only way to release the row group buffered in the pixels writer.
+        if (current.getCompletedBytes() >= fileSize || current.isOverBudget())
+        {
+            closeCurrentFile();
+        }
+    }
+
+    @Override
+    public void close(boolean abort) throws IOException
+    {
+        if (abort)
+        {
+            if (current != null)
+            {
+                current.close(null);
+                current = null;
+            }
+            // the files are not registered, remove them.
+            for (Path path : filePaths)
+            {
+                FileSystem fs = path.getFileSystem(conf);
+                if (fs.exists(path) && !fs.delete(path, false))
+                {
+                    log.warn("failed to delete the file of the aborted task " + path);
+                }
+                Path indexPath = PixelsBloomFilterIndex.getIndexPath(path);
+                if (fs.exists(indexPath) && !fs.delete(indexPath, false))
+                {
+                    log.warn("failed to delete the bloom filters of the aborted task " + indexPath);
+                }
+            }
+            return;
+        }
+        if (current != null)
+        {
+            closeCurrentFile();
+        }
+        // the manifest is written even if it is empty, hive expects the output file.
+        PixelsManifest.write(manifestPath.getFileSystem(conf), manifestPath, queryId, files);
+    }
+}
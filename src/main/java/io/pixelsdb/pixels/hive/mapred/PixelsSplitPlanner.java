@@ -0,0 +1,653 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.mapred;
+
+import io.pixelsdb.pixels.common.layout.*;
+import io.pixelsdb.pixels.common.metadata.SchemaTableName;
+import io.pixelsdb.pixels.common.metadata.domain.*;
+import io.pixelsdb.pixels.common.utils.ConfigFactory;
+import io.pixelsdb.pixels.daemon.MetadataProto;
+import io.pixelsdb.pixels.hive.common.PixelsAccessPattern;
+import io.pixelsdb.pixels.hive.common.PixelsAccessPatternExporter;
+import io.pixelsdb.pixels.hive.common.PixelsBlockLocator;
+import io.pixelsdb.pixels.hive.common.PixelsBloomFilterIndex;
+import io.pixelsdb.pixels.hive.common.PixelsCacheRegistry;
+import io.pixelsdb.pixels.hive.common.PixelsEvents;
+import io.pixelsdb.pixels.hive.common.PixelsMetadataSource;
+import io.pixelsdb.pixels.hive.common.PixelsMetrics;
+import io.pixelsdb.pixels.hive.common.PixelsSplit;
+import io.pixelsdb.pixels.storage.hdfs.HDFS;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plans the splits of a pixels table according to its layouts.
+ * <p>
+ * The layouts and files, the registry of pixels cache and the block locations
+ * are got from the given sources, so that the splits can be planned without the
+ * metadata database, etcd and HDFS by the in-memory sources, e.g., in the
+ * split-planning benchmark.
+ * </p>
+ * Created at: 2026-10-18
+ */
+public class PixelsSplitPlanner
+{
+    private static Logger log = LogManager.getLogger(PixelsSplitPlanner.class);
+
+    private final PixelsMetadataSource metadata;
+    private final PixelsCacheRegistry cacheRegistry;
+    private final PixelsBlockLocator blockLocator;
+    private final boolean cacheEnabled;
+    private final boolean projectionReadEnabled;
+    private final int fixedSplitSize;
+    /**
+     * The exporter of the access patterns of the plannings, null if disabled.
+     */
+    private PixelsAccessPatternExporter accessPatternExporter;
+    /**
+     * The names of the columns that the table builds bloom filters for, in lower case.
+     */
+    private List<String> bloomFilterColumns = new ArrayList<>(0);
+
+    /**
+     * @param metadata the source of the layouts and files
+     * @param cacheRegistry the registry of pixels cache
+     * @param blockLocator the locator of the file blocks
+     * @param cacheEnabled whether pixels cache is enabled
+     * @param projectionReadEnabled whether the projections of the layouts are used
+     * @param fixedSplitSize the number of row groups in a split, or non-positive to search
+     *                       the split size in the splits index
+     */
+    public PixelsSplitPlanner(PixelsMetadataSource metadata, PixelsCacheRegistry cacheRegistry,
+                              PixelsBlockLocator blockLocator, boolean cacheEnabled,
+                              boolean projectionReadEnabled, int fixedSplitSize)
+    {
+        this.metadata = metadata;
+        this.cacheRegistry = cacheRegistry;
+        this.blockLocator = blockLocator;
+        this.cacheEnabled = cacheEnabled;
+        this.projectionReadEnabled = projectionReadEnabled;
+        this.fixedSplitSize = fixedSplitSize;
+    }
+
+    /**
+     * Create the planner that uses the metadata database, etcd and HDFS,
+     * with the settings in pixels config.
+     */
+    public static PixelsSplitPlanner create(FileSystem fs, Configuration conf) throws IOException
+    {
+        ConfigFactory config = ConfigFactory.Instance();
+        PixelsSplitPlanner planner = new PixelsSplitPlanner(new PixelsMetadataSource.Dao(),
+                new PixelsCacheRegistry.Etcd(), new PixelsBlockLocator.Hdfs(new HDFS(fs, conf)),
+                Boolean.parseBoolean(config.getProperty("cache.enabled")),
+                Boolean.parseBoolean(config.getProperty("projection.read.enabled")),
+                Integer.parseInt(config.getProperty("fixed.split.size")));
+        planner.setAccessPatternExporter(PixelsAccessPatternExporter.get(conf));
+        return planner;
+    }
+
+    /**
+     * @param accessPatternExporter the exporter that the access pattern of each layout
+     *                              is exported to after the planning, null to disable
+     */
+    public void setAccessPatternExporter(PixelsAccessPatternExporter accessPatternExporter)
+    {
+        this.accessPatternExporter = accessPatternExporter;
+    }
+
+    /**
+     * @param bloomFilterColumns the names of the columns that the table builds bloom filters
+     *                           for, in lower case. The bloom filter files of the ordered files
+     *                           are only read if the search argument references these columns.
+     */
+    public void setBloomFilterColumns(List<String> bloomFilterColumns)
+    {
+        this.bloomFilterColumns = bloomFilterColumns;
+    }
+
+    /**
+     * Plan the splits of the table.
+     *
+     * @param st the schema and table name
+     * @param includedColumns the names of the columns read by the query
+     * @param sarg the filter pushed down by hive, it is used to skip row groups
+     *             by bloom filters if it references the bloom filter columns, may be null
+     * @param fs the file system to read the bloom filters, not used if they are not read
+     * @param numSplits the hint of the number of splits
+     * @return the splits, or null if failed to get the files or the pixels cache
+     */
+    public List<PixelsSplit> plan(SchemaTableName st, String[] includedColumns,
+                                  SearchArgument sarg, FileSystem fs, int numSplits)
+    {
+        long start = System.nanoTime();
+        PixelsEvents.SplitPlanning event = PixelsEvents.beginSplitPlanning();
+        List<PixelsAccessPattern> patterns = accessPatternExporter == null ? null : new ArrayList<>();
+        List<PixelsSplit> pixelsSplits;
+        if (!event.isEnabled())
+        {
+            pixelsSplits = plan(st, includedColumns, sarg, fs, numSplits, event, patterns);
+        } else
+        {
+            // time the accesses to the sources for the event.
+            TimedSources timed = new TimedSources(metadata, cacheRegistry, blockLocator, event);
+            PixelsSplitPlanner timedPlanner = new PixelsSplitPlanner(timed, timed, timed, cacheEnabled,
+                    projectionReadEnabled, fixedSplitSize);
+            timedPlanner.setBloomFilterColumns(bloomFilterColumns);
+            pixelsSplits = timedPlanner.plan(st, includedColumns, sarg, fs, numSplits, event, patterns);
+            event.setTable(st.toString());
+            event.setNumSplits(pixelsSplits == null ? 0 : pixelsSplits.size());
+            event.commit();
+        }
+        PixelsMetrics.Instance().recordPlanning(System.nanoTime() - start,
+                pixelsSplits == null ? 0 : pixelsSplits.size());
+        if (pixelsSplits != null && patterns != null && !patterns.isEmpty())
+        {
+            accessPatternExporter.export(patterns);
+        }
+        return pixelsSplits;
+    }
+
+    /**
+     * @param patterns the list to add the access pattern of each layout to, null if not exported
+     */
+    private List<PixelsSplit> plan(SchemaTableName st, String[] includedColumns, SearchArgument sarg,
+                                   FileSystem fs, int numSplits, PixelsEvents.SplitPlanning event,
+                                   List<PixelsAccessPattern> patterns)
+    {
+        /**
+         * Issue #78:
+         * Only try to use cache for the cached table.
+         */
+        boolean usingCache = false;
+        if (cacheEnabled)
+        {
+            SchemaTableName cachedTable = cacheRegistry.getCachedTable();
+            if (cachedTable != null &&
+                    st.getSchemaName().equalsIgnoreCase(cachedTable.getSchemaName()) &&
+                    st.getTableName().equalsIgnoreCase(cachedTable.getTableName()))
+            {
+                usingCache = true;
+            }
+        }
+
+        List<Layout> layouts = metadata.getLayouts(st);
+        event.setNumLayouts(layouts.size());
+
+        numSplits = numSplits == 0 ? 1 : numSplits;
+        // generate splits
+        ArrayList<PixelsSplit> pixelsSplits = new ArrayList<>(numSplits);
+
+        long timestamp = System.currentTimeMillis();
+        List<String> predicateColumns = patterns == null ? null : getPredicateColumns(sarg);
+        // the bloom filters of the ordered files are only read if they may skip row groups.
+        SearchArgument bloomFilterSarg =
+                PixelsBloomFilterIndex.canSelect(sarg, bloomFilterColumns) ? sarg : null;
+
+        for (Layout layout : layouts)
+        {
+            int layoutSplitStart = pixelsSplits.size();
+            // get index
+            long version = layout.getVersion();
+            SchemaTableName schemaTableName = new SchemaTableName(st.getSchemaName(), st.getTableName());
+            Ordered ordered = layout.getOrdered();
+            ColumnSet columnSet = new ColumnSet();
+            for (String columnName : includedColumns)
+            {
+                columnSet.addColumn(columnName);
+            }
+
+            long indexStart = event.isEnabled() ? System.nanoTime() : 0;
+            // get split size
+            int splitSize;
+            Splits splits = layout.getSplits();
+            if (fixedSplitSize > 0)
+            {
+                splitSize = fixedSplitSize;
+            }
+            else
+            {
+                SplitsIndex splitsIndex = IndexFactory.Instance().getSplitsIndex(schemaTableName);
+                if (splitsIndex == null)
+                {
+                    log.debug("splits index not exist in factory, building index...");
+                    splitsIndex = buildSplitsIndex(version, ordered, splits, schemaTableName);
+                    PixelsMetrics.Instance().recordSplitsIndex(false);
+                }
+                else
+                {
+                    long indexVersion = splitsIndex.getVersion();
+                    if (indexVersion < version) {
+                        log.debug("splits index is expired, building new index...");
+                        splitsIndex = buildSplitsIndex(version, ordered, splits, schemaTableName);
+                    }
+                    PixelsMetrics.Instance().recordSplitsIndex(indexVersion >= version);
+                }
+
+                SplitPattern bestSplitPattern = splitsIndex.search(columnSet);
+                splitSize = bestSplitPattern.getSplitSize();
+            }
+            log.debug("using split size: " + splitSize);
+            int rowGroupNum = splits.getNumRowGroupInFile();
+
+            // get compact paths
+            List<io.pixelsdb.pixels.common.metadata.domain.Path> compactPaths;
+            if (projectionReadEnabled)
+            {
+                ProjectionsIndex projectionsIndex = IndexFactory.Instance().getProjectionsIndex(schemaTableName);
+                Projections projections = layout.getProjections();
+                if (projectionsIndex == null)
+                {
+                    log.debug("projections index not exist in factory, building index...");
+                    projectionsIndex = buildProjectionsIndex(ordered, projections, schemaTableName);
+                    PixelsMetrics.Instance().recordProjectionsIndex(false);
+                }
+                else
+                {
+                    int indexVersion = projectionsIndex.getVersion();
+                    if (indexVersion < version)
+                    {
+                        log.debug("projections index is not up-to-date, updating index...");
+                        projectionsIndex = buildProjectionsIndex(ordered, projections, schemaTableName);
+                    }
+                    PixelsMetrics.Instance().recordProjectionsIndex(indexVersion >= version);
+                }
+                ProjectionPattern projectionPattern = projectionsIndex.search(columnSet);
+                if (projectionPattern != null)
+                {
+                    log.debug("suitable projection pattern is found");
+                    long[] projectionPathIds = projectionPattern.getPathIds();
+                    Map<Long, io.pixelsdb.pixels.common.metadata.domain.Path> projectionPaths = layout.getProjectionPaths();
+                    compactPaths = new ArrayList<>(projectionPathIds.length);
+                    for (long projectionPathId : projectionPathIds)
+                    {
+                        compactPaths.add(projectionPaths.get(projectionPathId));
+                    }
+                }
+                else
+                {
+                    compactPaths = layout.getCompactPaths();
+                }
+            }
+            else
+            {
+                compactPaths = layout.getCompactPaths();
+            }
+            if (event.isEnabled())
+            {
+                event.addIndexSearchNanos(System.nanoTime() - indexStart);
+            }
+
+            if(usingCache)
+            {
+                Compact compact = layout.getCompact();
+                int cacheBorder = compact.getCacheBorder();
+                List<String> cacheColumnChunkOrders = compact.getColumnChunkOrder().subList(0, cacheBorder);
+                // 1. get version
+                String cacheVersion = cacheRegistry.getCacheVersion();
+                if(cacheVersion != null)
+                {
+                    log.debug("cache version: " + cacheVersion);
+                    // 2. get files of each node
+                    Map<String, String> fileLocations = cacheRegistry.getFileLocations(cacheVersion);
+                    if(!fileLocations.isEmpty())
+                    {
+                        try
+                        {
+                            // 3. add splits in orderedPaths
+                            Map<String, Integer> orderedPaths = getFileRowGroupNums(layout.getOrderedPaths());
+                            for (Map.Entry<String, Integer> entry : orderedPaths.entrySet())
+                            {
+                                String path = entry.getKey();
+                                long fileLength = blockLocator.getLength(path);
+                                String[] hosts = blockLocator.getHosts(path);
+                                addOrderedSplits(pixelsSplits, path, entry.getValue(), splitSize,
+                                        ordered.getColumnOrder(), fileLength, hosts, bloomFilterSarg, fs);
+                            }
+                            // 4. add splits in compactPaths
+                            int curFileRGIdx;
+                            for (String path : getFilePaths(compactPaths))
+                            {
+                                long fileLength = blockLocator.getLength(path);
+                                String[] hosts = {fileLocations.get(path)};
+                                curFileRGIdx = 0;
+                                while (curFileRGIdx < rowGroupNum)
+                                {
+                                    PixelsSplit pixelsSplit = new PixelsSplit(new Path(path), curFileRGIdx, splitSize,
+                                            true, cacheColumnChunkOrders, ordered.getColumnOrder(),
+                                            fileLength, hosts);
+                                    pixelsSplits.add(pixelsSplit);
+                                    curFileRGIdx += splitSize;
+                                }
+                            }
+                        }
+                        catch (IOException e)
+                        {
+                            log.error("Failed to open or read HDFS file.", e);
+                            return null;
+                        }
+                    }
+                    else
+                    {
+                        log.error("Get caching files error when version is " + cacheVersion);
+                        return null;
+                    }
+                }
+                else
+                {
+                    log.error("pixels cache version not found.");
+                    return null;
+                }
+            }
+            else
+            {
+                log.debug("cache is disabled");
+                Map<String, Integer> orderedFilePaths;
+                List<String> compactFilePaths;
+                try
+                {
+                    orderedFilePaths = getFileRowGroupNums(layout.getOrderedPaths());
+                    compactFilePaths = getFilePaths(compactPaths);
+
+                    // add splits in orderedFilePaths
+                    for (Map.Entry<String, Integer> entry : orderedFilePaths.entrySet())
+                    {
+                        String path = entry.getKey();
+                        String[] hosts = blockLocator.getHosts(path);
+                        addOrderedSplits(pixelsSplits, path, entry.getValue(), splitSize,
+                                ordered.getColumnOrder(), blockLocator.getLength(path), hosts, bloomFilterSarg, fs);
+                    }
+                    // add splits in compactFilePaths
+                    int curFileRGIdx;
+                    for (String path : compactFilePaths)
+                    {
+                        // the hosts are the same for all the splits in the file.
+                        String[] hosts = blockLocator.getHosts(path);
+                        curFileRGIdx = 0;
+                        while (curFileRGIdx < rowGroupNum)
+                        {
+                            PixelsSplit pixelsSplit = new PixelsSplit(new Path(path), curFileRGIdx, splitSize,
+                                    false, new ArrayList<>(0), ordered.getColumnOrder(),
+                                    splitSize, hosts);
+                            pixelsSplits.add(pixelsSplit);
+                            curFileRGIdx += splitSize;
+                        }
+                    }
+                }
+                catch (IOException e)
+                {
+                    log.error("Failed to open or read file/object from storage.", e);
+                    return null;
+                }
+            }
+            if (patterns != null)
+            {
+                patterns.add(new PixelsAccessPattern(timestamp, st.getSchemaName(), st.getTableName(),
+                        version, Arrays.asList(includedColumns), predicateColumns, splitSize,
+                        pixelsSplits.size() - layoutSplitStart));
+            }
+        }
+        return pixelsSplits;
+    }
+
+    /**
+     * @return the distinct names of the columns in the leaves of the search argument
+     */
+    private static List<String> getPredicateColumns(SearchArgument sarg)
+    {
+        if (sarg == null)
+        {
+            return new ArrayList<>(0);
+        }
+        LinkedHashSet<String> columns = new LinkedHashSet<>();
+        for (PredicateLeaf leaf : sarg.getLeaves())
+        {
+            columns.add(leaf.getColumnName());
+        }
+        return new ArrayList<>(columns);
+    }
+
+    /**
+     * Add the splits of an ordered file. The ordered files loaded by pixels
+     * contain one row group, while the ordered files written by hive may contain
+     * multiple row groups, they are split by the split size like compact files.
+     * <p>
+     * If the file has bloom filters and the search argument is not null, the row
+     * groups that can not satisfy the search argument are not included in the splits.
+     * The search argument is null if it does not reference the bloom filter columns
+     * of the table, so that the bloom filter file is not probed for each file.
+     * </p>
+     */
+    private static void addOrderedSplits(List<PixelsSplit> pixelsSplits, String path, int rowGroupNum,
+                                         int splitSize, List<String> columnOrder, long fileLength,
+                                         String[] hosts, SearchArgument sarg, FileSystem fs)
+    {
+        boolean[] selected = null;
+        if (sarg != null && rowGroupNum > 0)
+        {
+            try
+            {
+                PixelsBloomFilterIndex index = PixelsBloomFilterIndex.read(fs, new Path(path));
+                if (index != null && index.getNumRowGroup() == rowGroupNum)
+                {
+                    selected = index.select(sarg);
+                }
+            } catch (IOException e)
+            {
+                // the bloom filters are optional, read the whole file.
+                log.warn("failed to read the bloom filters of " + path, e);
+            }
+        }
+        if (selected == null)
+        {
+            int curFileRGIdx = 0;
+            do
+            {
+                int rgLen = Math.max(1, Math.min(splitSize, rowGroupNum - curFileRGIdx));
+                PixelsSplit pixelsSplit = new PixelsSplit(new Path(path), curFileRGIdx, rgLen,
+                        false, new ArrayList<>(0), columnOrder, fileLength, hosts);
+                pixelsSplits.add(pixelsSplit);
+                curFileRGIdx += rgLen;
+            } while (curFileRGIdx < rowGroupNum);
+            return;
+        }
+        // each split covers a range of the selected row groups.
+        int numSplits = pixelsSplits.size();
+        int rgSkipped = 0;
+        int curFileRGIdx = 0;
+        while (curFileRGIdx < rowGroupNum)
+        {
+            if (!selected[curFileRGIdx])
+            {
+                rgSkipped++;
+                curFileRGIdx++;
+                continue;
+            }
+            int rgLen = 1;
+            while (rgLen < splitSize && curFileRGIdx + rgLen < rowGroupNum && selected[curFileRGIdx + rgLen])
+            {
+                rgLen++;
+            }
+            PixelsSplit pixelsSplit = new PixelsSplit(new Path(path), curFileRGIdx, rgLen,
+                    false, new ArrayList<>(0), columnOrder, fileLength, hosts);
+            pixelsSplits.add(pixelsSplit);
+            curFileRGIdx += rgLen;
+        }
+        if (pixelsSplits.size() > numSplits)
+        {
+            // the skipped row groups are counted by the record reader of the first split.
+            pixelsSplits.get(numSplits).setRgSkipped(rgSkipped);
+        }
+    }
+
+    private SplitsIndex buildSplitsIndex(long version, Ordered ordered, Splits splits, SchemaTableName schemaTableName) {
+        List<String> columnOrder = ordered.getColumnOrder();
+        SplitsIndex index;
+        index = new InvertedSplitsIndex(version, columnOrder, SplitPattern.buildPatterns(columnOrder, splits),
+                splits.getNumRowGroupInFile());
+        IndexFactory.Instance().cacheSplitsIndex(schemaTableName, index);
+        return index;
+    }
+
+    private ProjectionsIndex buildProjectionsIndex(Ordered ordered, Projections projections, SchemaTableName schemaTableName) {
+        List<String> columnOrder = ordered.getColumnOrder();
+        ProjectionsIndex index;
+        index = new InvertedProjectionsIndex(columnOrder, ProjectionPattern.buildPatterns(columnOrder, projections));
+        IndexFactory.Instance().cacheProjectionsIndex(schemaTableName, index);
+        return index;
+    }
+
+    public List<String> getFilePaths(List<io.pixelsdb.pixels.common.metadata.domain.Path> dirPaths)
+    {
+        List<String> filePaths = new ArrayList<>();
+        for (io.pixelsdb.pixels.common.metadata.domain.Path dirPath : dirPaths)
+        {
+            String base = dirPath.getUri();
+            if (!base.endsWith("/"))
+            {
+                base += "/";
+            }
+            for (MetadataProto.File file : metadata.getFiles(dirPath))
+            {
+                filePaths.add(base + file.getName());
+            }
+        }
+        return filePaths;
+    }
+
+    /**
+     * Get the files in the directories and the number of row groups in each file.
+     *
+     * @param dirPaths the directories
+     * @return the map from file path to the number of row groups, in the order of the files
+     */
+    public Map<String, Integer> getFileRowGroupNums(List<io.pixelsdb.pixels.common.metadata.domain.Path> dirPaths)
+    {
+        Map<String, Integer> fileRowGroupNums = new LinkedHashMap<>();
+        for (io.pixelsdb.pixels.common.metadata.domain.Path dirPath : dirPaths)
+        {
+            String base = dirPath.getUri();
+            if (!base.endsWith("/"))
+            {
+                base += "/";
+            }
+            for (MetadataProto.File file : metadata.getFiles(dirPath))
+            {
+                fileRowGroupNums.put(base + file.getName(), file.getNumRowGroup());
+            }
+        }
+        return fileRowGroupNums;
+    }
+
+    /**
+     * Adds the time of accessing the sources to the split planning event.
+     */
+    private static class TimedSources implements PixelsMetadataSource, PixelsCacheRegistry, PixelsBlockLocator
+    {
+        private final PixelsMetadataSource metadata;
+        private final PixelsCacheRegistry cacheRegistry;
+        private final PixelsBlockLocator blockLocator;
+        private final PixelsEvents.SplitPlanning event;
+
+        private TimedSources(PixelsMetadataSource metadata, PixelsCacheRegistry cacheRegistry,
+                             PixelsBlockLocator blockLocator, PixelsEvents.SplitPlanning event)
+        {
+            this.metadata = metadata;
+            this.cacheRegistry = cacheRegistry;
+            this.blockLocator = blockLocator;
+            this.event = event;
+        }
+
+        @Override
+        public List<Layout> getLayouts(SchemaTableName st)
+        {
+            long start = System.nanoTime();
+            List<Layout> layouts = metadata.getLayouts(st);
+            event.addMetadataNanos(System.nanoTime() - start);
+            return layouts;
+        }
+
+        @Override
+        public List<MetadataProto.File> getFiles(io.pixelsdb.pixels.common.metadata.domain.Path dirPath)
+        {
+            long start = System.nanoTime();
+            List<MetadataProto.File> files = metadata.getFiles(dirPath);
+            event.addMetadataNanos(System.nanoTime() - start);
+            return files;
+        }
+
+        @Override
+        public SchemaTableName getCachedTable()
+        {
+            long start = System.nanoTime();
+            SchemaTableName cachedTable = cacheRegistry.getCachedTable();
+            event.addCacheRegistryNanos(System.nanoTime() - start);
+            return cachedTable;
+        }
+
+        @Override
+        public String getCacheVersion()
+        {
+            long start = System.nanoTime();
+            String cacheVersion = cacheRegistry.getCacheVersion();
+            event.addCacheRegistryNanos(System.nanoTime() - start);
+            return cacheVersion;
+        }
+
+        @Override
+        public Map<String, String> getFileLocations(String cacheVersion)
+        {
+            long start = System.nanoTime();
+            Map<String, String> fileLocations = cacheRegistry.getFileLocations(cacheVersion);
+            event.addCacheRegistryNanos(System.nanoTime() - start);
+            return fileLocations;
+        }
+
+        @Override
+        public long getLength(String path) throws IOException
+        {
+            long start = System.nanoTime();
+            long length = blockLocator.getLength(path);
+            event.addBlockLocationNanos(System.nanoTime() - start);
+            return length;
+        }
+
+        @Override
+        public String[] getHosts(String path) throws IOException
+        {
+            long start = System.nanoTime();
+            String[] hosts = blockLocator.getHosts(path);
+            event.addBlockLocationNanos(System.nanoTime() - start);
+            return hosts;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.jfr;
+
+import io.pixelsdb.pixels.hive.common.PixelsEvents;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The java flight recorder events of pixels-hive. This class is loaded by
+ * {@link PixelsEvents} by reflection, it is only compiled on JDK 11 or later.
+ * <p>
+ * Record the events by, e.g.:
+ * <pre>
+ * -XX:StartFlightRecording=settings=profile,filename=pixels.jfr
+ * </pre>
+ * and find them under the Pixels category in JDK Mission Control.
+ * </p>
+ * Created at: 2026-10-18
+ */
+public class JfrEventFactory implements PixelsEvents.Factory
+{
+    /**
+     * The events to check whether the event types are enabled, they are never committed.
+     */
+    private static final SplitPlanningEvent SPLIT_PLANNING = new SplitPlanningEvent();
+    private static final FooterReadEvent FOOTER_READ = new FooterReadEvent();
+    private static final BatchReadEvent BATCH_READ = new BatchReadEvent();
+    private static final WriterFlushEvent WRITER_FLUSH = new WriterFlushEvent();
+
+    @Override
+    public PixelsEvents.SplitPlanning beginSplitPlanning()
+    {
+        if (!SPLIT_PLANNING.isEnabled())
+        {
+            return PixelsEvents.NOOP;
+        }
+        SplitPlanningEvent event = new SplitPlanningEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public PixelsEvents.FooterRead beginFooterRead()
+    {
+        if (!FOOTER_READ.isEnabled())
+        {
+            return PixelsEvents.NOOP;
+        }
+        FooterReadEvent event = new FooterReadEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public PixelsEvents.BatchRead beginBatchRead()
+    {
+        if (!BATCH_READ.isEnabled())
+        {
+            return PixelsEvents.NOOP;
+        }
+        BatchReadEvent event = new BatchReadEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public PixelsEvents.WriterFlush beginWriterFlush()
+    {
+        if (!WRITER_FLUSH.isEnabled())
+        {
+            return PixelsEvents.NOOP;
+        }
+        WriterFlushEvent event = new WriterFlushEvent();
+        event.begin();
+        return event;
+    }
+
+    @Name("io.pixelsdb.pixels.hive.SplitPlanning")
+    @Label("Split Planning")
+    @Description("The planning of the splits of a pixels table in getSplits")
+    @Category({"Pixels", "Hive"})
+    static class SplitPlanningEvent extends Event implements PixelsEvents.SplitPlanning
+    {
+        @Label("Table")
+        String table;
+
+        @Label("Layouts")
+        int numLayouts;
+
+        @Label("Splits")
+        int numSplits;
+
+        @Label("Metadata Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long metadataNanos;
+
+        @Label("Cache Registry Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long cacheRegistryNanos;
+
+        @Label("Block Location Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long blockLocationNanos;
+
+        @Label("Index Search Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long indexSearchNanos;
+
+        @Override
+        public void setTable(String table)
+        {
+            this.table = table;
+        }
+
+        @Override
+        public void setNumLayouts(int numLayouts)
+        {
+            this.numLayouts = numLayouts;
+        }
+
+        @Override
+        public void setNumSplits(int numSplits)
+        {
+            this.numSplits = numSplits;
+        }
+
+        @Override
+        public void addMetadataNanos(long nanos)
+        {
+            this.metadataNanos += nanos;
+        }
+
+        @Override
+        public void addCacheRegistryNanos(long nanos)
+        {
+            this.cacheRegistryNanos += nanos;
+        }
+
+        @Override
+        public void addBlockLocationNanos(long nanos)
+        {
+            this.blockLocationNanos += nanos;
+        }
+
+        @Override
+        public void addIndexSearchNanos(long nanos)
+        {
+            this.indexSearchNanos += nanos;
+        }
+    }
+
+    @Name("io.pixelsdb.pixels.hive.FooterRead")
+    @Label("Footer Read")
+    @Description("The fetch of the footer of a pixels file when the file reader is created")
+    @Category({"Pixels", "Hive"})
+    static class FooterReadEvent extends Event implements PixelsEvents.FooterRead
+    {
+        @Label("Path")
+        String path;
+
+        @Label("Cached")
+        boolean cached;
+
+        @Override
+        public void setPath(String path)
+        {
+            this.path = path;
+        }
+
+        @Override
+        public void setCached(boolean cached)
+        {
+            this.cached = cached;
+        }
+    }
+
+    @Name("io.pixelsdb.pixels.hive.BatchRead")
+    @Label("Batch Read")
+    @Description("The read of a row batch by the pixels record reader")
+    @Category({"Pixels", "Hive"})
+    static class BatchReadEvent extends Event implements PixelsEvents.BatchRead
+    {
+        @Label("Path")
+        String path;
+
+        @Label("Rows")
+        int rows;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Columns")
+        int columns;
+
+        @Override
+        public void setPath(String path)
+        {
+            this.path = path;
+        }
+
+        @Override
+        public void setRows(int rows)
+        {
+            this.rows = rows;
+        }
+
+        @Override
+        public void setBytes(long bytes)
+        {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void setColumns(int columns)
+        {
+            this.columns = columns;
+        }
+    }
+
+    @Name("io.pixelsdb.pixels.hive.WriterFlush")
+    @Label("Writer Flush")
+    @Description("The flush of the buffered rows into the pixels writer")
+    @Category({"Pixels", "Hive"})
+    static class WriterFlushEvent extends Event implements PixelsEvents.WriterFlush
+    {
+        @Label("Path")
+        String path;
+
+        @Label("Rows")
+        int rows;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Row Group Flushed")
+        boolean rowGroupFlushed;
+
+        @Override
+        public void setPath(String path)
+        {
+            this.path = path;
+        }
+
+        @Override
+        public void setRows(int rows)
+        {
+            this.rows = rows;
+        }
+
+        @Override
+        public void setBytes(long bytes)
+        {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void setRowGroupFlushed(boolean rowGroupFlushed)
+        {
+            this.rowGroupFlushed = rowGroupFlushed;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.vector.BinaryColumnVector;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgumentFactory;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Created at: 2026-10-18
+ */
+public class TestPixelsBloomFilterIndex
+{
+    private static final int ROWS_PER_ROW_GROUP = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FileSystem fs;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        fs = FileSystem.getLocal(new Configuration());
+        file = new Path(folder.getRoot().getAbsolutePath(), "test.pxl");
+    }
+
+    /**
+     * Write the bloom filters of two row groups, the ids are [0, 100) and [1000, 1100),
+     * and the names are a0 to a99 and b1000 to b1099.
+     */
+    private PixelsBloomFilterIndex writeAndRead() throws IOException
+    {
+        TypeDescription schema = TypeDescription.fromString("struct<id:bigint,name:string,score:bigint>");
+        PixelsBloomFilterIndex.Builder builder = new PixelsBloomFilterIndex.Builder(
+                schema, Arrays.asList("id", "NAME"), 1024, 0.01);
+        VectorizedRowBatch batch = schema.createRowBatch(ROWS_PER_ROW_GROUP);
+        addRowGroup(builder, batch, 0, "a");
+        addRowGroup(builder, batch, 1000, "b");
+        builder.write(fs, file);
+        return PixelsBloomFilterIndex.read(fs, file);
+    }
+
+    private static void addRowGroup(PixelsBloomFilterIndex.Builder builder, VectorizedRowBatch batch,
+                                    long start, String prefix)
+    {
+        batch.reset();
+        LongColumnVector ids = (LongColumnVector) batch.cols[0];
+        BinaryColumnVector names = (BinaryColumnVector) batch.cols[1];
+        for (int row = 0; row < ROWS_PER_ROW_GROUP; ++row)
+        {
+            ids.vector[row] = start + row;
+            byte[] name = (prefix + (start + row)).getBytes(StandardCharsets.UTF_8);
+            names.setVal(row, name, 0, name.length);
+        }
+        batch.size = ROWS_PER_ROW_GROUP;
+        builder.add(batch);
+        builder.finishRowGroup();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        assertNull(PixelsBloomFilterIndex.read(fs, file));
+        PixelsBloomFilterIndex index = writeAndRead();
+        assertTrue(fs.exists(PixelsBloomFilterIndex.getIndexPath(file)));
+        assertNotNull(index);
+        assertEquals(2, index.getNumRowGroup());
+    }
+
+    @Test
+    public void testEquals() throws IOException
+    {
+        PixelsBloomFilterIndex index = writeAndRead();
+        SearchArgument sarg = SearchArgumentFactory.newBuilder().startAnd()
+                .equals("id", PredicateLeaf.Type.LONG, 1050L).end().build();
+        assertArrayEquals(new boolean[]{false, true}, index.select(sarg));
+        sarg = SearchArgumentFactory.newBuilder().startAnd()
+                .equals("name", PredicateLeaf.Type.STRING, "a42").end().build();
+        assertArrayEquals(new boolean[]{true, false}, index.select(sarg));
+        sarg = SearchArgumentFactory.newBuilder().startAnd()
+                .equals("id", PredicateLeaf.Type.LONG, 500L).end().build();
+        assertArrayEquals(new boolean[]{false, false}, index.select(sarg));
+    }
+
+    @Test
+    public void testIn() throws IOException
+    {
+        PixelsBloomFilterIndex index = writeAndRead();
+        SearchArgument sarg = SearchArgumentFactory.newBuilder().startAnd()
+                .in("id", PredicateLeaf.Type.LONG, 500L, 1099L).end().build();
+        assertArrayEquals(new boolean[]{false, true}, index.select(sarg));
+        sarg = SearchArgumentFactory.newBuilder().startAnd()
+                .in("name", PredicateLeaf.Type.STRING, "a0", "b1000").end().build();
+        assertArrayEquals(new boolean[]{true, true}, index.select(sarg));
+        sarg = SearchArgumentFactory.newBuilder().startAnd()
+                .in("name", PredicateLeaf.Type.STRING, "c0", "a1000").end().build();
+        assertArrayEquals(new boolean[]{false, false}, index.select(sarg));
+    }
+
+    @Test
+    public void testUnprunedLeaves() throws IOException
+    {
+        PixelsBloomFilterIndex index = writeAndRead();
+        // the bloom filters do not record nulls.
+        SearchArgument sarg = SearchArgumentFactory.newBuilder().startAnd()
+                .isNull("id", PredicateLeaf.Type.LONG).end().build();
+        assertArrayEquals(new boolean[]{true, true}, index.select(sarg));
+        // score has no bloom filter.
+        sarg = SearchArgumentFactory.newBuilder().startAnd()
+                .equals("score", PredicateLeaf.Type.LONG, 500L).end().build();
+        assertArrayEquals(new boolean[]{true, true}, index.select(sarg));
+        // a row group is skipped by AND if any leaf is not found, but by OR only if no leaf is found.
+        sarg = SearchArgumentFactory.newBuilder().startAnd()
+                .equals("id", PredicateLeaf.Type.LONG, 10L)
+                .isNull("name", PredicateLeaf.Type.STRING).end().build();
+        assertArrayEquals(new boolean[]{true, false}, index.select(sarg));
+        sarg = SearchArgumentFactory.newBuilder().startOr()
+                .equals("id", PredicateLeaf.Type.LONG, 10L)
+                .isNull("name", PredicateLeaf.Type.STRING).end().build();
+        assertArrayEquals(new boolean[]{true, true}, index.select(sarg));
+    }
+
+    @Test
+    public void testCanSelect()
+    {
+        SearchArgument sarg = SearchArgumentFactory.newBuilder().startAnd()
+                .equals("ID", PredicateLeaf.Type.LONG, 1L).end().build();
+        assertTrue(PixelsBloomFilterIndex.canSelect(sarg, Collections.singletonList("id")));
+        assertFalse(PixelsBloomFilterIndex.canSelect(sarg, Collections.singletonList("name")));
+        assertFalse(PixelsBloomFilterIndex.canSelect(null, Collections.singletonList("id")));
+        sarg = SearchArgumentFactory.newBuilder().startAnd()
+                .lessThan("id", PredicateLeaf.Type.LONG, 1L).end().build();
+        assertFalse(PixelsBloomFilterIndex.canSelect(sarg, Collections.singletonList("id")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownColumn()
+    {
+        TypeDescription schema = TypeDescription.fromString("struct<id:bigint>");
+        new PixelsBloomFilterIndex.Builder(schema, Collections.singletonList("name"), 1024, 0.01);
+    }
+}
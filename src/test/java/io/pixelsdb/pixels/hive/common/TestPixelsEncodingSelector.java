@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.common;
+
+import io.pixelsdb.pixels.core.TypeDescription;
+import io.pixelsdb.pixels.core.encoding.EncodingLevel;
+import io.pixelsdb.pixels.core.vector.BinaryColumnVector;
+import io.pixelsdb.pixels.core.vector.LongColumnVector;
+import io.pixelsdb.pixels.core.vector.VectorizedRowBatch;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Created at: 2026-10-18
+ */
+public class TestPixelsEncodingSelector
+{
+    private static final int NUM_ROWS = 1000;
+    private static final double MIN_GAIN = 0.1;
+
+    private TypeDescription schema;
+    private VectorizedRowBatch sample;
+
+    /**
+     * The sample has long runs in the int column a, and four distinct values in the
+     * string column b, so that both run-length and dictionary encoding pay off.
+     */
+    @Before
+    public void setUp()
+    {
+        schema = TypeDescription.fromString("struct<a:int,b:string>");
+        sample = schema.createRowBatch(NUM_ROWS);
+        LongColumnVector a = (LongColumnVector) sample.cols[0];
+        BinaryColumnVector b = (BinaryColumnVector) sample.cols[1];
+        for (int row = 0; row < NUM_ROWS; ++row)
+        {
+            a.vector[row] = row / 100;
+            byte[] value = ("value" + row % 4).getBytes(StandardCharsets.UTF_8);
+            b.setVal(row, value, 0, value.length);
+        }
+        sample.size = NUM_ROWS;
+    }
+
+    private EncodingLevel select(String... columnEncodings)
+    {
+        Map<String, String> encodings = new HashMap<>();
+        for (int i = 0; i < columnEncodings.length; i += 2)
+        {
+            encodings.put(columnEncodings[i], columnEncodings[i + 1]);
+        }
+        return PixelsEncodingSelector.select(schema, sample, encodings, MIN_GAIN);
+    }
+
+    @Test
+    public void testSampling()
+    {
+        assertEquals(EncodingLevel.EL2, select());
+        // no encoding saves all the bytes.
+        assertEquals(EncodingLevel.EL0, PixelsEncodingSelector.select(
+                schema, sample, Collections.emptyMap(), 1.0));
+    }
+
+    @Test
+    public void testPlainCaps()
+    {
+        // the plain string column caps the level below dictionary encoding.
+        assertEquals(EncodingLevel.EL1, select("b", "plain"));
+        // the plain int column caps the level below run-length encoding.
+        assertEquals(EncodingLevel.EL0, select("a", "plain"));
+    }
+
+    @Test
+    public void testRequiredLevels()
+    {
+        assertEquals(EncodingLevel.EL1, select("a", "rle", "b", "plain"));
+        assertEquals(EncodingLevel.EL2, PixelsEncodingSelector.select(
+                schema, sample, Collections.singletonMap("b", "dictionary"), 1.0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConflict()
+    {
+        select("a", "plain", "b", "dictionary");
+    }
+
+    @Test
+    public void testColumnEncodings()
+    {
+        Properties properties = new Properties();
+        properties.setProperty("pixels.column.A.encoding", " RLE ");
+        properties.setProperty("pixels.column.b.encoding", "plain");
+        properties.setProperty("pixels.other", "dictionary");
+        Map<String, String> expected = new HashMap<>();
+        expected.put("a", "rle");
+        expected.put("b", "plain");
+        assertEquals(expected, PixelsEncodingSelector.getColumnEncodings(properties));
+        assertEquals(Collections.emptyMap(), PixelsEncodingSelector.getColumnEncodings(null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalColumnEncoding()
+    {
+        Properties properties = new Properties();
+        properties.setProperty("pixels.column.a.encoding", "zip");
+        PixelsEncodingSelector.getColumnEncodings(properties);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 PixelsDB.
+ *
+ * This file is part of Pixels.
+ *
+ * Pixels is free software: you can redistribute it and/or modify
+ * it under the terms of the Affero GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * Pixels is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * Affero GNU General Public License for more details.
+ *
+ * You should have received a copy of the Affero GNU General Public
+ * License along with Pixels.  If not, see
+ * <https://www.gnu.org/licenses/>.
+ */
+package io.pixelsdb.pixels.hive.mapred;
+
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Created at: 2026-10-18
+ */
+public class TestPixelsClusteringRecordWriter
+{
+    /**
+     * Check that the normalized values of the ascending values are non-decreasing as unsigned longs.
+     */
+    private static void assertNormalizedOrder(PrimitiveObjectInspector inspector, Object... ascending)
+    {
+        long previous = PixelsClusteringRecordWriter.normalize(ascending[0], inspector);
+        for (int i = 1; i < ascending.length; ++i)
+        {
+            long normalized = PixelsClusteringRecordWriter.normalize(ascending[i], inspector);
+            assertTrue(ascending[i - 1] + " should not be after " + ascending[i],
+                    Long.compareUnsigned(previous, normalized) <= 0);
+            previous = normalized;
+        }
+    }
+
+    @Test
+    public void testNormalizeLongs()
+    {
+        assertNormalizedOrder(PrimitiveObjectInspectorFactory.javaLongObjectInspector,
+                Long.MIN_VALUE, -100L, -1L, 0L, 1L, 100L, Long.MAX_VALUE);
+        assertNormalizedOrder(PrimitiveObjectInspectorFactory.javaIntObjectInspector,
+                Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE);
+        assertEquals(0L, PixelsClusteringRecordWriter.normalize(
+                null, PrimitiveObjectInspectorFactory.javaLongObjectInspector));
+    }
+
+    @Test
+    public void testNormalizeDoubles()
+    {
+        assertNormalizedOrder(PrimitiveObjectInspectorFactory.javaDoubleObjectInspector,
+                Double.NEGATIVE_INFINITY, -1e10, -1.5, -Double.MIN_VALUE, 0.0,
+                Double.MIN_VALUE, 1e-10, 2.5, 1e10, Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void testNormalizeStrings()
+    {
+        assertNormalizedOrder(PrimitiveObjectInspectorFactory.javaStringObjectInspector,
+                "", "a", "ab", "abc", "b", "ba", "é");
+        // only the first 8 bytes are compared.
+        assertEquals(PixelsClusteringRecordWriter.normalize(
+                "abcdefghX", PrimitiveObjectInspectorFactory.javaStringObjectInspector),
+                PixelsClusteringRecordWriter.normalize(
+                        "abcdefghY", PrimitiveObjectInspectorFactory.javaStringObjectInspector));
+    }
+
+    @Test
+    public void testInterleave()
+    {
+        assertEquals(0xAAAAAAAAAAAAAAAAL, PixelsClusteringRecordWriter.interleave(new long[]{-1L, 0L}));
+        assertEquals(0x5555555555555555L, PixelsClusteringRecordWriter.interleave(new long[]{0L, -1L}));
+        assertEquals(0x123456789ABCDEF0L, PixelsClusteringRecordWriter.interleave(new long[]{0x123456789ABCDEF0L}));
+    }
+
+    /**
+     * The z-order value does not decrease if any of the normalized values increases.
+     */
+    @Test
+    public void testInterleaveMonotonicity()
+    {
+        Random random = new Random(0);
+        for (int numColumns = 1; numColumns <= 4; ++numColumns)
+        {
+            for (int i = 0; i < 1000; ++i)
+            {
+                long[] normalized = new long[numColumns];
+                for (int c = 0; c < numColumns; ++c)
+                {
+                    normalized[c] = random.nextLong();
+                }
+                long before = PixelsClusteringRecordWriter.interleave(normalized);
+                int column = random.nextInt(numColumns);
+                long increased = normalized[column] + (random.nextLong() >>> 1);
+                if (Long.compareUnsigned(increased, normalized[column]) < 0)
+                {
+                    increased = -1L;
+                }
+                normalized[column] = increased;
+                long after = PixelsClusteringRecordWriter.interleave(normalized);
+                assertTrue(Long.compareUnsigned(before, after) <= 0);
+            }
+        }
+    }
+}